@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dataliquid.maven.distribution.verifier.benchmark.SyntheticDistribution.Compression;
+import com.dataliquid.maven.distribution.verifier.domain.ArchiveEngine;
+import com.dataliquid.maven.distribution.verifier.service.GenerateService;
+
+/**
+ * Generation of a new whitelist from a synthetic distribution archive.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class GenerateBenchmark
+{
+    @Param({ "1000", "10000", "100000", "1000000" })
+    private int entryCount;
+
+    @Param({ "STORED", "DEFLATED" })
+    private Compression compression;
+
+    @Param({ "unpack", "stream", "zipfs" })
+    private String archiveEngine;
+
+    private SyntheticDistribution distribution;
+
+    private File workDirectory;
+
+    private File whitelist;
+
+    private GenerateService generateService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException
+    {
+        distribution = SyntheticDistribution.create(entryCount, compression);
+        workDirectory = SyntheticDistribution.createWorkDirectory("generate");
+        whitelist = new File(workDirectory, "whitelist.xml");
+        generateService = new GenerateService();
+        generateService.setArchiveEngine(ArchiveEngine.valueOf(archiveEngine.toUpperCase(Locale.ROOT).replace('-', '_')));
+    }
+
+    @Benchmark
+    public File generate()
+    {
+        generateService.generate(distribution.getArchiveFile(), workDirectory, whitelist);
+        return whitelist;
+    }
+
+}
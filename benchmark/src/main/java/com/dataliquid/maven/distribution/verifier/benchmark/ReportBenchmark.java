@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dataliquid.maven.distribution.verifier.domain.DigestAlgorithm;
+import com.dataliquid.maven.distribution.verifier.domain.ResultEntry;
+import com.dataliquid.maven.distribution.verifier.domain.VerificationStatus;
+import com.dataliquid.maven.distribution.verifier.report.JUnitReport;
+import com.dataliquid.maven.distribution.verifier.report.Report;
+import com.dataliquid.maven.distribution.verifier.report.XmlReport;
+
+/**
+ * Writing the report of a verification, one result in a hundred failed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ReportBenchmark
+{
+    @Param({ "1000", "10000", "100000", "1000000" })
+    private int resultCount;
+
+    @Param({ "xml", "junit" })
+    private String reportType;
+
+    private List<ResultEntry> results;
+
+    private Report report;
+
+    private File reportFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException
+    {
+        results = new ArrayList<>(resultCount);
+        for (int i = 0; i < resultCount; i++)
+        {
+            ResultEntry resultEntry = new ResultEntry();
+            resultEntry.setPath(SyntheticDistribution.getPath(i));
+            resultEntry.setDigest(DigestAlgorithm.MD5, DigestUtils.md5Hex(resultEntry.getPath()));
+            if (i % 100 == 0)
+            {
+                resultEntry.setStatus(VerificationStatus.FAILED.name());
+                resultEntry.setMessage("File is not defined in whitelist");
+            }
+            else
+            {
+                resultEntry.setStatus(VerificationStatus.SUCCESS.name());
+                resultEntry.setMessage("Validation passed successfully");
+            }
+            results.add(resultEntry);
+        }
+        report = "junit".equals(reportType) ? new JUnitReport() : new XmlReport();
+        reportFile = new File(SyntheticDistribution.createWorkDirectory("report"), "report.xml");
+    }
+
+    @Benchmark
+    public File generateReport() throws Exception
+    {
+        report.generateReport(results, reportFile.getPath());
+        return reportFile;
+    }
+
+}
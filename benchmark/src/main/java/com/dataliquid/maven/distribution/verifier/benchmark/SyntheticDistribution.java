@@ -0,0 +1,243 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.benchmark;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.Locale;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Generates a distribution archive together with its whitelist for the benchmarks. The content is derived from a fixed
+ * seed, so every run measures the same archive, and generated archives are reused from the data directory.
+ * <p>
+ * Most entries are small, like the class and resource files of a real distribution, a few are large enough to dominate
+ * the hashing time:
+ * <ul>
+ * <li>95 % of 32 bytes to 1 KB</li>
+ * <li>4.5 % of 1 KB to 16 KB</li>
+ * <li>0.45 % of 16 KB to 256 KB</li>
+ * <li>0.05 % of 256 KB to 1 MB</li>
+ * </ul>
+ */
+public final class SyntheticDistribution
+{
+    /**
+     * Compression method of the archive entries, <code>MIXED</code> stores every second entry.
+     */
+    public enum Compression
+    {
+        STORED, DEFLATED, MIXED
+    }
+
+    /**
+     * System property of the directory the generated archives are kept in.
+     */
+    public static final String DATA_DIRECTORY_PROPERTY = "benchmark.dataDirectory";
+
+    private static final String DEFAULT_DATA_DIRECTORY = "target/benchmark-data";
+
+    private static final long SEED = 20190512L;
+
+    private static final String[] EXTENSIONS = { "class", "class", "class", "xml", "properties", "txt" };
+
+    private static final String[] WORDS = { "distribution", "verifier", "whitelist", "archive", "entry", "checksum", "maven", "plugin",
+            "public", "class", "return", "static", "final", "void", "import", "package", "<entry>", "</entry>", "=", ";", "{", "}" };
+
+    /**
+     * Text the entry contents are cut from, compresses roughly like source and resource files.
+     */
+    private static final byte[] CONTENT = createContent(4 * 1024 * 1024);
+
+    private final File archiveFile;
+
+    private final File whitelistFile;
+
+    private final int entryCount;
+
+    private SyntheticDistribution(File archiveFile, File whitelistFile, int entryCount)
+    {
+        this.archiveFile = archiveFile;
+        this.whitelistFile = whitelistFile;
+        this.entryCount = entryCount;
+    }
+
+    /**
+     * Create the distribution archive with the given number of entries in the data directory, unless it exists from a
+     * previous run.
+     */
+    public static SyntheticDistribution create(int entryCount, Compression compression) throws IOException
+    {
+        File directory = getDataDirectory();
+        String name = "distribution-" + entryCount + "-" + compression.name().toLowerCase(Locale.ROOT);
+        File archiveFile = new File(directory, name + ".zip");
+        File whitelistFile = new File(directory, name + "-whitelist.xml");
+        if (!archiveFile.isFile() || !whitelistFile.isFile())
+        {
+            FileUtils.forceMkdir(directory);
+            write(archiveFile, whitelistFile, entryCount, compression);
+        }
+        return new SyntheticDistribution(archiveFile, whitelistFile, entryCount);
+    }
+
+    public static File getDataDirectory()
+    {
+        return new File(System.getProperty(DATA_DIRECTORY_PROPERTY, DEFAULT_DATA_DIRECTORY));
+    }
+
+    /**
+     * Create a new empty work directory below the data directory.
+     */
+    public static File createWorkDirectory(String name) throws IOException
+    {
+        File workDirectory = new File(getDataDirectory(), "work-" + name);
+        FileUtils.deleteDirectory(workDirectory);
+        FileUtils.forceMkdir(workDirectory);
+        return workDirectory;
+    }
+
+    /**
+     * Path of the entry with the given index, spread over 100 modules with up to 100 packages each.
+     */
+    public static String getPath(int index)
+    {
+        return "/module-" + (index % 100) + "/package-" + (index / 100 % 100) + "/file-" + index + "." + EXTENSIONS[index % EXTENSIONS.length];
+    }
+
+    private static void write(File archiveFile, File whitelistFile, int entryCount, Compression compression) throws IOException
+    {
+        File temporaryArchiveFile = new File(archiveFile.getPath() + ".tmp");
+        File temporaryWhitelistFile = new File(whitelistFile.getPath() + ".tmp");
+        Random random = new Random(SEED);
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryArchiveFile.toPath())));
+                Writer writer = new BufferedWriter(Files.newBufferedWriter(temporaryWhitelistFile.toPath(), StandardCharsets.UTF_8)))
+        {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n<whitelist>\n");
+            for (int i = 0; i < entryCount; i++)
+            {
+                int size = nextSize(random);
+                int offset = random.nextInt(CONTENT.length - size);
+                String path = getPath(i);
+                writeEntry(zipOutputStream, path.substring(1), offset, size, isStored(compression, i));
+                writer.write("\t<entry md5=\"");
+                writer.write(md5Hex(offset, size));
+                writer.write("\" path=\"");
+                writer.write(path);
+                writer.write("\" />\n");
+            }
+            writer.write("</whitelist>\n");
+        }
+        Files.move(temporaryArchiveFile.toPath(), archiveFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Files.move(temporaryWhitelistFile.toPath(), whitelistFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeEntry(ZipOutputStream zipOutputStream, String name, int offset, int size, boolean stored) throws IOException
+    {
+        ZipEntry zipEntry = new ZipEntry(name);
+        if (stored)
+        {
+            CRC32 crc32 = new CRC32();
+            crc32.update(CONTENT, offset, size);
+            zipEntry.setMethod(ZipEntry.STORED);
+            zipEntry.setSize(size);
+            zipEntry.setCompressedSize(size);
+            zipEntry.setCrc(crc32.getValue());
+        }
+        else
+        {
+            zipEntry.setMethod(ZipEntry.DEFLATED);
+        }
+        zipOutputStream.putNextEntry(zipEntry);
+        zipOutputStream.write(CONTENT, offset, size);
+        zipOutputStream.closeEntry();
+    }
+
+    private static boolean isStored(Compression compression, int index)
+    {
+        return compression == Compression.STORED || compression == Compression.MIXED && index % 2 == 0;
+    }
+
+    private static int nextSize(Random random)
+    {
+        int percentile = random.nextInt(10_000);
+        if (percentile < 9_500)
+        {
+            return 32 + random.nextInt(1024 - 32);
+        }
+        if (percentile < 9_950)
+        {
+            return 1024 + random.nextInt(15 * 1024);
+        }
+        if (percentile < 9_995)
+        {
+            return 16 * 1024 + random.nextInt(240 * 1024);
+        }
+        return 256 * 1024 + random.nextInt(768 * 1024);
+    }
+
+    private static String md5Hex(int offset, int size)
+    {
+        MessageDigest messageDigest = DigestUtils.getMd5Digest();
+        messageDigest.update(CONTENT, offset, size);
+        return Hex.encodeHexString(messageDigest.digest());
+    }
+
+    private static byte[] createContent(int size)
+    {
+        Random random = new Random(SEED);
+        byte[] content = new byte[size];
+        int position = 0;
+        while (position < size)
+        {
+            String word = random.nextInt(8) == 0 ? Integer.toHexString(random.nextInt()) : WORDS[random.nextInt(WORDS.length)];
+            byte[] bytes = (word + (random.nextInt(12) == 0 ? "\n" : " ")).getBytes(StandardCharsets.US_ASCII);
+            int length = Math.min(bytes.length, size - position);
+            System.arraycopy(bytes, 0, content, position, length);
+            position += length;
+        }
+        return content;
+    }
+
+    public File getArchiveFile()
+    {
+        return archiveFile;
+    }
+
+    public File getWhitelistFile()
+    {
+        return whitelistFile;
+    }
+
+    public int getEntryCount()
+    {
+        return entryCount;
+    }
+
+}
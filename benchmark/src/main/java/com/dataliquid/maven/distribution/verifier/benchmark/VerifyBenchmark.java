@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dataliquid.maven.distribution.verifier.benchmark.SyntheticDistribution.Compression;
+import com.dataliquid.maven.distribution.verifier.domain.ArchiveEngine;
+import com.dataliquid.maven.distribution.verifier.domain.VerifierResult;
+import com.dataliquid.maven.distribution.verifier.service.VerifierService;
+
+/**
+ * Verification of a synthetic distribution archive against its complete whitelist.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class VerifyBenchmark
+{
+    @Param({ "1000", "10000", "100000", "1000000" })
+    private int entryCount;
+
+    @Param({ "STORED", "DEFLATED" })
+    private Compression compression;
+
+    @Param({ "unpack", "stream", "mapped", "zipfs" })
+    private String archiveEngine;
+
+    private SyntheticDistribution distribution;
+
+    private File workDirectory;
+
+    private VerifierService verifierService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException
+    {
+        distribution = SyntheticDistribution.create(entryCount, compression);
+        workDirectory = SyntheticDistribution.createWorkDirectory("verify");
+        verifierService = new VerifierService();
+        verifierService.setArchiveEngine(ArchiveEngine.valueOf(archiveEngine.toUpperCase(Locale.ROOT).replace('-', '_')));
+    }
+
+    @Benchmark
+    public VerifierResult verify()
+    {
+        VerifierResult verifierResult = verifierService.verify(distribution.getArchiveFile(), workDirectory, distribution.getWhitelistFile(),
+                Collections.emptyMap());
+        if (!verifierResult.isValid())
+        {
+            throw new IllegalStateException("Verification of " + distribution.getArchiveFile() + " failed");
+        }
+        return verifierResult;
+    }
+
+}
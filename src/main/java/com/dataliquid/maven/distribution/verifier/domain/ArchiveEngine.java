@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.domain;
+
+import java.util.Locale;
+
+/**
+ * Defines how the content of the distribution archive file is accessed.
+ */
+public enum ArchiveEngine
+{
+    /**
+     * Unpack the archive into the work directory and read the files from disk.
+     */
+    UNPACK,
+
+    /**
+     * Read and hash the entries directly from the archive without any temporary files.
+     */
+    STREAM,
+
+    /**
+     * Compare the CRC-32 checksums stored in the central directory of the archive without reading any entry content.
+     * Other checksums are not verified, entries which define no CRC-32 checksum fail.
+     */
+    CENTRAL_DIRECTORY,
+
+    /**
+     * Read the entries directly from the archive like {@link #STREAM}, hashing STORED entries straight from the memory
+     * mapped archive without copying them.
+     */
+    MAPPED,
+
+    /**
+     * Mount the archive with the zip file system provider of the JDK and walk its entries with
+     * {@link java.nio.file.Files#walkFileTree}, the same traversal is used for unpacked archives. Nothing is written to
+     * disk.
+     */
+    ZIPFS;
+
+    /**
+     * Value of the engine as configured by the <code>archiveEngine</code> parameter, e.g.
+     * <code>central-directory</code>.
+     */
+    public String getParameterValue()
+    {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.domain;
+
+/**
+ * Digest algorithms supported in the whitelist. Each algorithm is stored in its own entry attribute.
+ */
+public enum DigestAlgorithm
+{
+    MD5("md5", "MD5"),
+
+    SHA1("sha1", "SHA-1"),
+
+    SHA256("sha256", "SHA-256"),
+
+    SHA512("sha512", "SHA-512"),
+
+    /**
+     * Non-cryptographic checksum, stored in the central directory of zip based archives.
+     */
+    CRC32("crc32", "CRC-32"),
+
+    /**
+     * Fast non-cryptographic checksum (Castagnoli polynomial) for quick checks.
+     */
+    CRC32C("crc32c", "CRC-32C");
+
+    private final String attributeName;
+
+    private final String displayName;
+
+    DigestAlgorithm(String attributeName, String displayName)
+    {
+        this.attributeName = attributeName;
+        this.displayName = displayName;
+    }
+
+    /**
+     * @return name of the whitelist and report attribute, e.g. <code>sha256</code>
+     */
+    public String getAttributeName()
+    {
+        return attributeName;
+    }
+
+    /**
+     * @return standard name of the algorithm, e.g. <code>SHA-256</code>
+     */
+    public String getDisplayName()
+    {
+        return displayName;
+    }
+
+    /**
+     * Resolve an algorithm by its attribute or standard name, ignoring case.
+     * 
+     * @param name
+     *            e.g. <code>sha256</code> or <code>SHA-256</code>
+     * @return the algorithm
+     * @throws IllegalArgumentException
+     *             if the name is unknown
+     */
+    public static DigestAlgorithm fromName(String name)
+    {
+        String trimmedName = name.trim();
+        for (DigestAlgorithm algorithm : values())
+        {
+            if (algorithm.attributeName.equalsIgnoreCase(trimmedName) || algorithm.displayName.equalsIgnoreCase(trimmedName))
+            {
+                return algorithm;
+            }
+        }
+        throw new IllegalArgumentException("Unknown digest algorithm " + name);
+    }
+}
@@ -15,11 +15,34 @@
  */
 package com.dataliquid.maven.distribution.verifier.domain;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+
 public class Entry
 {
+    /**
+     * Maximum number of occurrences of a pattern entry without limit.
+     */
+    public static final int UNBOUNDED = -1;
+
     private String path;
 
-    private String md5;
+    private PatternSyntax patternSyntax;
+
+    private int minOccurs = 1;
+
+    private int maxOccurs = UNBOUNDED;
+
+    private final Map<DigestAlgorithm, String> digests = new EnumMap<>(DigestAlgorithm.class);
+
+    private final Map<DigestAlgorithm, byte[]> decodedDigests = new EnumMap<>(DigestAlgorithm.class);
+
+    private final List<Entry> children = new ArrayList<>();
 
     public String getPath()
     {
@@ -31,14 +54,148 @@ public class Entry
         this.path = path;
     }
 
+    /**
+     * @return syntax of the path if the entry matches several files, <code>null</code> for an exact path
+     */
+    public PatternSyntax getPatternSyntax()
+    {
+        return patternSyntax;
+    }
+
+    public void setPatternSyntax(PatternSyntax patternSyntax)
+    {
+        this.patternSyntax = patternSyntax;
+    }
+
+    public boolean isPattern()
+    {
+        return patternSyntax != null;
+    }
+
+    /**
+     * @return minimum number of files matched by a pattern entry
+     */
+    public int getMinOccurs()
+    {
+        return minOccurs;
+    }
+
+    public void setMinOccurs(int minOccurs)
+    {
+        this.minOccurs = minOccurs;
+    }
+
+    /**
+     * @return maximum number of files matched by a pattern entry or {@link #UNBOUNDED}
+     */
+    public int getMaxOccurs()
+    {
+        return maxOccurs;
+    }
+
+    public void setMaxOccurs(int maxOccurs)
+    {
+        this.maxOccurs = maxOccurs;
+    }
+
+    /**
+     * Create the entry of a file matched by this pattern entry, expecting the same digests.
+     */
+    public Entry createMatch(String matchedPath)
+    {
+        Entry match = new Entry();
+        match.setPath(matchedPath);
+        match.digests.putAll(digests);
+        match.decodedDigests.putAll(decodedDigests);
+        return match;
+    }
+
     public String getMd5()
     {
-        return md5;
+        return getDigest(DigestAlgorithm.MD5);
     }
 
     public void setMd5(String md5)
     {
-        this.md5 = md5;
+        setDigest(DigestAlgorithm.MD5, md5);
+    }
+
+    public String getCrc32()
+    {
+        return getDigest(DigestAlgorithm.CRC32);
+    }
+
+    public void setCrc32(String crc32)
+    {
+        setDigest(DigestAlgorithm.CRC32, crc32);
+    }
+
+    public String getDigest(DigestAlgorithm algorithm)
+    {
+        return digests.get(algorithm);
+    }
+
+    /**
+     * Set the expected digest of the given algorithm, an empty value removes the digest. The hex value is decoded once
+     * so files are compared by their raw digest bytes.
+     */
+    public void setDigest(DigestAlgorithm algorithm, String digest)
+    {
+        decodedDigests.remove(algorithm);
+        if (digest == null || digest.isEmpty())
+        {
+            digests.remove(algorithm);
+        }
+        else
+        {
+            digests.put(algorithm, digest);
+            try
+            {
+                decodedDigests.put(algorithm, Hex.decodeHex(digest));
+            }
+            catch (DecoderException e)
+            {
+                // not a hex value, no file will match it
+            }
+        }
+    }
+
+    /**
+     * Set the expected digest of the given algorithm from its raw bytes.
+     */
+    public void setDigest(DigestAlgorithm algorithm, byte[] digest)
+    {
+        digests.put(algorithm, Hex.encodeHexString(digest));
+        decodedDigests.put(algorithm, digest);
+    }
+
+    /**
+     * @return raw bytes of the expected digest or <code>null</code> if the digest is missing or not a valid hex value
+     */
+    public byte[] getDecodedDigest(DigestAlgorithm algorithm)
+    {
+        return decodedDigests.get(algorithm);
+    }
+
+    /**
+     * @return expected digests by algorithm, empty if only the existence of the file is verified
+     */
+    public Map<DigestAlgorithm, String> getDigests()
+    {
+        return digests;
+    }
+
+    /**
+     * @return entries of the nested archive in whitelist order, empty if the file is not verified as archive
+     */
+    public List<Entry> getChildren()
+    {
+        return children;
+    }
+
+    public void addChild(Entry child)
+    {
+        children.add(child);
     }
 
 }
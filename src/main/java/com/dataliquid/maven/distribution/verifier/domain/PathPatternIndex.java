@@ -0,0 +1,350 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.domain;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * All pattern entries of a whitelist compiled into one trie of path segments. Literal segments are looked up by hash,
+ * so a path is matched in a single walk over its segments no matter how many patterns share a directory. Regular
+ * expressions are attached to the directory of their literal prefix and only evaluated for paths below it.
+ */
+class PathPatternIndex
+{
+    private static final String SEPARATOR = "/";
+
+    private static final String ANY_SEGMENTS = "**";
+
+    private static final String REGEX_METACHARACTERS = "\\^$.|?*+()[]{}";
+
+    private final Node root = new Node();
+
+    private int size;
+
+    void add(Entry entry)
+    {
+        Match match = new Match(entry, size++);
+        String pattern = entry.getPath();
+        if (entry.getPatternSyntax() == PatternSyntax.REGEX)
+        {
+            Node node = root;
+            for (String segment : splitLiteralPrefix(pattern))
+            {
+                node = node.literals.computeIfAbsent(segment, s -> new Node());
+            }
+            node.regexes.add(new RegexMatch(Pattern.compile(pattern), match));
+            return;
+        }
+        Node node = root;
+        for (String segment : split(pattern.startsWith(SEPARATOR) ? pattern.substring(1) : pattern))
+        {
+            if (ANY_SEGMENTS.equals(segment))
+            {
+                if (node.anySegments == null)
+                {
+                    node.anySegments = new Node();
+                    node.anySegments.isAnySegments = true;
+                }
+                node = node.anySegments;
+            }
+            else if (isWildcard(segment))
+            {
+                node = node.wildcards.computeIfAbsent(segment, WildcardNode::new);
+            }
+            else
+            {
+                node = node.literals.computeIfAbsent(segment, s -> new Node());
+            }
+        }
+        if (node.match == null)
+        {
+            node.match = match;
+        }
+    }
+
+    /**
+     * Find the first pattern entry in whitelist order matching the given path.
+     * 
+     * @param path
+     *            normalized path starting with <code>/</code>
+     * @return matching entry or <code>null</code>
+     */
+    Entry findEntry(String path)
+    {
+        if (size == 0)
+        {
+            return null;
+        }
+        List<Node> active = new ArrayList<>();
+        addNode(root, active);
+        Match best = matchRegexes(root, path, null);
+        for (String segment : split(path.substring(1)))
+        {
+            List<Node> next = advance(active, segment);
+            for (Node node : next)
+            {
+                best = matchRegexes(node, path, best);
+            }
+            if (next.isEmpty())
+            {
+                return best != null ? best.entry : null;
+            }
+            active = next;
+        }
+        for (Node node : active)
+        {
+            if (node.match != null && (best == null || node.match.order < best.order))
+            {
+                best = node.match;
+            }
+        }
+        return best != null ? best.entry : null;
+    }
+
+    /**
+     * Find the first glob pattern entry matching every path below the given directory, a pattern ending with
+     * <code>**</code> whose leading segments match the directory. Regular expressions are not considered.
+     * 
+     * @param directory
+     *            normalized directory path starting with <code>/</code>
+     * @return matching entry or <code>null</code>
+     */
+    Entry findSubtreeEntry(String directory)
+    {
+        if (size == 0)
+        {
+            return null;
+        }
+        List<Node> active = new ArrayList<>();
+        addNode(root, active);
+        for (String segment : split(directory.substring(1)))
+        {
+            active = advance(active, segment);
+            if (active.isEmpty())
+            {
+                return null;
+            }
+        }
+        Match best = null;
+        for (Node node : active)
+        {
+            if (node.isAnySegments && node.match != null && (best == null || node.match.order < best.order))
+            {
+                best = node.match;
+            }
+        }
+        return best != null ? best.entry : null;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Nodes reached from the given nodes by one path segment.
+     */
+    private static List<Node> advance(List<Node> active, String segment)
+    {
+        List<Node> next = new ArrayList<>();
+        for (Node node : active)
+        {
+            if (node.isAnySegments)
+            {
+                addNode(node, next);
+            }
+            Node literal = node.literals.get(segment);
+            if (literal != null)
+            {
+                addNode(literal, next);
+            }
+            for (WildcardNode wildcard : node.wildcards.values())
+            {
+                if (wildcard.pattern.matcher(segment).matches())
+                {
+                    addNode(wildcard, next);
+                }
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Add the node and the <code>**</code> node below it, which matches without consuming a segment.
+     */
+    private static void addNode(Node node, List<Node> nodes)
+    {
+        if (!nodes.contains(node))
+        {
+            nodes.add(node);
+        }
+        if (node.anySegments != null && !nodes.contains(node.anySegments))
+        {
+            nodes.add(node.anySegments);
+        }
+    }
+
+    private static Match matchRegexes(Node node, String path, Match best)
+    {
+        for (RegexMatch regex : node.regexes)
+        {
+            if ((best == null || regex.match.order < best.order) && regex.pattern.matcher(path).matches())
+            {
+                best = regex.match;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Directories of the literal prefix of a regular expression, e.g. <code>lib</code> for
+     * <code>/lib/sample-\d+\.jar</code>. An alternation may leave the prefix, so it is attached to the root.
+     */
+    private static List<String> splitLiteralPrefix(String regex)
+    {
+        if (regex.indexOf('|') >= 0)
+        {
+            return new ArrayList<>();
+        }
+        int start = regex.startsWith("^") ? 1 : 0;
+        int end = start;
+        while (end < regex.length() && REGEX_METACHARACTERS.indexOf(regex.charAt(end)) < 0)
+        {
+            end++;
+        }
+        String prefix = regex.substring(start, end);
+        if (!prefix.startsWith(SEPARATOR) || prefix.lastIndexOf(SEPARATOR) == 0)
+        {
+            return new ArrayList<>();
+        }
+        return split(prefix.substring(1, prefix.lastIndexOf(SEPARATOR)));
+    }
+
+    private static List<String> split(String path)
+    {
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= path.length(); i++)
+        {
+            if (i == path.length() || path.charAt(i) == '/')
+            {
+                if (i > start)
+                {
+                    segments.add(path.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return segments;
+    }
+
+    private static boolean isWildcard(String segment)
+    {
+        return segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('[') >= 0;
+    }
+
+    /**
+     * Translate a glob segment into a regular expression, <code>[...]</code> character classes are kept.
+     */
+    private static Pattern compileSegment(String segment)
+    {
+        StringBuilder regex = new StringBuilder();
+        boolean characterClass = false;
+        for (char character : segment.toCharArray())
+        {
+            if (characterClass)
+            {
+                regex.append(character);
+                characterClass = character != ']';
+            }
+            else if (character == '*')
+            {
+                regex.append("[^/]*");
+            }
+            else if (character == '?')
+            {
+                regex.append("[^/]");
+            }
+            else if (character == '[')
+            {
+                regex.append(character);
+                characterClass = true;
+            }
+            else
+            {
+                regex.append(Pattern.quote(String.valueOf(character)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static class Node
+    {
+        private final Map<String, Node> literals = new HashMap<>();
+
+        private final Map<String, WildcardNode> wildcards = new LinkedHashMap<>();
+
+        private final List<RegexMatch> regexes = new ArrayList<>();
+
+        private Node anySegments;
+
+        private boolean isAnySegments;
+
+        private Match match;
+    }
+
+    private static class WildcardNode extends Node
+    {
+        private final Pattern pattern;
+
+        WildcardNode(String segment)
+        {
+            this.pattern = compileSegment(segment);
+        }
+    }
+
+    private static class Match
+    {
+        private final Entry entry;
+
+        private final int order;
+
+        Match(Entry entry, int order)
+        {
+            this.entry = entry;
+            this.order = order;
+        }
+    }
+
+    private static class RegexMatch
+    {
+        private final Pattern pattern;
+
+        private final Match match;
+
+        RegexMatch(Pattern pattern, Match match)
+        {
+            this.pattern = pattern;
+            this.match = match;
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.domain;
+
+/**
+ * Syntax of a whitelist entry matching several files.
+ */
+public enum PatternSyntax
+{
+    /**
+     * Glob like <code>/lib/*.jar</code>, <code>*</code> and <code>?</code> match within a path segment and
+     * <code>**</code> matches any number of segments.
+     */
+    GLOB,
+
+    /**
+     * Regular expression matching the complete path including the leading <code>/</code>.
+     */
+    REGEX
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.domain;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.dataliquid.maven.distribution.verifier.event.PhaseEvent;
+
+/**
+ * Wall time, bytes read and entries processed by one phase of a run, e.g. unpacking or hashing. Bytes and entries may
+ * be added concurrently by the checksum threads. Every start of the phase is recorded as a {@link PhaseEvent} while a
+ * flight recording is running.
+ */
+public class PhaseMetrics
+{
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private static final double BYTES_PER_MEGABYTE = 1024d * 1024d;
+
+    private final String goal;
+
+    private final String name;
+
+    private final LongAdder bytes = new LongAdder();
+
+    private final LongAdder entries = new LongAdder();
+
+    private long startNanos;
+
+    private long durationNanos;
+
+    private PhaseEvent event;
+
+    private long startBytes;
+
+    private long startEntries;
+
+    public PhaseMetrics(String goal, String name)
+    {
+        this.goal = goal;
+        this.name = name;
+    }
+
+    public void start()
+    {
+        event = PhaseEvent.begin(goal, name);
+        if (event != null)
+        {
+            startBytes = getBytes();
+            startEntries = getEntries();
+        }
+        startNanos = System.nanoTime();
+    }
+
+    public void stop()
+    {
+        durationNanos += System.nanoTime() - startNanos;
+        if (event != null)
+        {
+            event.commit(getBytes() - startBytes, getEntries() - startEntries);
+            event = null;
+        }
+    }
+
+    public void addBytes(long count)
+    {
+        bytes.add(count);
+    }
+
+    public void addEntries(long count)
+    {
+        entries.add(count);
+    }
+
+    public String getGoal()
+    {
+        return goal;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public long getDurationNanos()
+    {
+        return durationNanos;
+    }
+
+    public double getDurationMillis()
+    {
+        return durationNanos / 1_000_000d;
+    }
+
+    public long getBytes()
+    {
+        return bytes.sum();
+    }
+
+    public long getEntries()
+    {
+        return entries.sum();
+    }
+
+    public double getMegabytes()
+    {
+        return getBytes() / BYTES_PER_MEGABYTE;
+    }
+
+    /**
+     * @return throughput of the phase, <code>0</code> if no bytes were read
+     */
+    public double getMegabytesPerSecond()
+    {
+        return durationNanos > 0 ? getMegabytes() / (durationNanos / NANOS_PER_SECOND) : 0;
+    }
+
+}
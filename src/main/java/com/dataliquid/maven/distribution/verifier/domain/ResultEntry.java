@@ -15,13 +15,19 @@
  */
 package com.dataliquid.maven.distribution.verifier.domain;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
 public class ResultEntry
 {
 
     private String status;
     private String message;
     private String path;
-    private String md5;
+    private final Map<DigestAlgorithm, String> digests = new EnumMap<>(DigestAlgorithm.class);
+    private final List<DigestAlgorithm> verifiedDigests = new ArrayList<>();
 
     public String getPath()
     {
@@ -35,12 +41,63 @@ public class ResultEntry
 
     public String getMd5()
     {
-        return md5;
+        return digests.get(DigestAlgorithm.MD5);
     }
 
     public void setMd5(String md5)
     {
-        this.md5 = md5;
+        setDigest(DigestAlgorithm.MD5, md5);
+    }
+
+    public String getCrc32()
+    {
+        return digests.get(DigestAlgorithm.CRC32);
+    }
+
+    public void setCrc32(String crc32)
+    {
+        setDigest(DigestAlgorithm.CRC32, crc32);
+    }
+
+    public void setDigest(DigestAlgorithm algorithm, String digest)
+    {
+        if (digest == null)
+        {
+            digests.remove(algorithm);
+        }
+        else
+        {
+            digests.put(algorithm, digest);
+        }
+    }
+
+    /**
+     * @return digests of the entry by algorithm, the expected values for whitelist entries and the actual values for
+     *         files not defined in the whitelist
+     */
+    public Map<DigestAlgorithm, String> getDigests()
+    {
+        return digests;
+    }
+
+    public void setDigests(Map<DigestAlgorithm, String> digests)
+    {
+        this.digests.clear();
+        this.digests.putAll(digests);
+    }
+
+    /**
+     * @return algorithms whose digest matched the file
+     */
+    public List<DigestAlgorithm> getVerifiedDigests()
+    {
+        return verifiedDigests;
+    }
+
+    public void setVerifiedDigests(List<DigestAlgorithm> verifiedDigests)
+    {
+        this.verifiedDigests.clear();
+        this.verifiedDigests.addAll(verifiedDigests);
     }
 
     public String getStatus()
@@ -68,10 +125,11 @@ public class ResultEntry
     {
         final int prime = 31;
         int result = 1;
-        result = prime * result + ((md5 == null) ? 0 : md5.hashCode());
+        result = prime * result + digests.hashCode();
         result = prime * result + ((message == null) ? 0 : message.hashCode());
         result = prime * result + ((path == null) ? 0 : path.hashCode());
         result = prime * result + ((status == null) ? 0 : status.hashCode());
+        result = prime * result + verifiedDigests.hashCode();
         return result;
     }
 
@@ -85,12 +143,7 @@ public class ResultEntry
         if (getClass() != obj.getClass())
             return false;
         ResultEntry other = (ResultEntry) obj;
-        if (md5 == null)
-        {
-            if (other.md5 != null)
-                return false;
-        }
-        else if (!md5.equals(other.md5))
+        if (!digests.equals(other.digests))
             return false;
         if (message == null)
         {
@@ -113,13 +166,15 @@ public class ResultEntry
         }
         else if (!status.equals(other.status))
             return false;
+        if (!verifiedDigests.equals(other.verifiedDigests))
+            return false;
         return true;
     }
 
     @Override
     public String toString()
     {
-        return "ResultEntry [status=" + status + ", message=" + message + ", path=" + path + ", md5=" + md5 + "]";
+        return "ResultEntry [status=" + status + ", message=" + message + ", path=" + path + ", digests=" + digests + "]";
     }
 
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.domain;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Metrics of a single verify or generate run per phase, in the order the phases were started.
+ */
+public class RunMetrics
+{
+    public static final String WHITELIST = "whitelist";
+
+    public static final String UNPACK = "unpack";
+
+    public static final String HASHING = "hashing";
+
+    public static final String REPORT = "report";
+
+    private final String goal;
+
+    private final File distributionArchiveFile;
+
+    private final Map<String, PhaseMetrics> phases = new LinkedHashMap<>();
+
+    private String status;
+
+    public RunMetrics(String goal, File distributionArchiveFile)
+    {
+        this.goal = goal;
+        this.distributionArchiveFile = distributionArchiveFile;
+    }
+
+    /**
+     * @return metrics of the phase with the given name, created on first access
+     */
+    public synchronized PhaseMetrics phase(String name)
+    {
+        return phases.computeIfAbsent(name, key -> new PhaseMetrics(goal, key));
+    }
+
+    public synchronized List<PhaseMetrics> getPhases()
+    {
+        return new ArrayList<>(phases.values());
+    }
+
+    /**
+     * @return sum of the wall time of all phases
+     */
+    public long getDurationNanos()
+    {
+        long durationNanos = 0;
+        for (PhaseMetrics phase : getPhases())
+        {
+            durationNanos += phase.getDurationNanos();
+        }
+        return durationNanos;
+    }
+
+    public double getDurationMillis()
+    {
+        return getDurationNanos() / 1_000_000d;
+    }
+
+    public String getGoal()
+    {
+        return goal;
+    }
+
+    public File getDistributionArchiveFile()
+    {
+        return distributionArchiveFile;
+    }
+
+    public String getStatus()
+    {
+        return status;
+    }
+
+    public void setStatus(String status)
+    {
+        this.status = status;
+    }
+
+    /**
+     * One line summary for the build log, e.g.
+     * <code>verify sample.zip 812 ms - whitelist 21 ms, 2000 entries | unpack 190 ms, 5.2 MB, 27.4 MB/s | ...</code>
+     */
+    public String toSummary()
+    {
+        StringBuilder summary = new StringBuilder();
+        summary.append(goal).append(' ').append(distributionArchiveFile.getName()).append(' ');
+        summary.append(String.format(Locale.ROOT, "%.0f ms", getDurationMillis()));
+        String separator = " - ";
+        for (PhaseMetrics phase : getPhases())
+        {
+            summary.append(separator).append(phase.getName()).append(String.format(Locale.ROOT, " %.0f ms", phase.getDurationMillis()));
+            if (phase.getEntries() > 0)
+            {
+                summary.append(", ").append(phase.getEntries()).append(" entries");
+            }
+            if (phase.getBytes() > 0)
+            {
+                summary.append(String.format(Locale.ROOT, ", %.1f MB, %.1f MB/s", phase.getMegabytes(), phase.getMegabytesPerSecond()));
+            }
+            separator = " | ";
+        }
+        return summary.toString();
+    }
+
+}
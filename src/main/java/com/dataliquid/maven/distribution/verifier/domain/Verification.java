@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.domain;
+
+import java.io.File;
+import java.util.Map;
+
+/**
+ * Distribution archive file verified against its own whitelist, e.g. one of several classifiers of a build.
+ */
+public class Verification
+{
+    private File distributionArchiveFile;
+
+    private File whitelist;
+
+    private String reportFile;
+
+    private Map<String, String> properties;
+
+    public Verification()
+    {
+        super();
+    }
+
+    public Verification(File distributionArchiveFile, File whitelist, String reportFile)
+    {
+        this();
+        this.distributionArchiveFile = distributionArchiveFile;
+        this.whitelist = whitelist;
+        this.reportFile = reportFile;
+    }
+
+    public File getDistributionArchiveFile()
+    {
+        return distributionArchiveFile;
+    }
+
+    public void setDistributionArchiveFile(File distributionArchiveFile)
+    {
+        this.distributionArchiveFile = distributionArchiveFile;
+    }
+
+    public File getWhitelist()
+    {
+        return whitelist;
+    }
+
+    public void setWhitelist(File whitelist)
+    {
+        this.whitelist = whitelist;
+    }
+
+    public String getReportFile()
+    {
+        return reportFile;
+    }
+
+    public void setReportFile(String reportFile)
+    {
+        this.reportFile = reportFile;
+    }
+
+    public Map<String, String> getProperties()
+    {
+        return properties;
+    }
+
+    /**
+     * Variables of the whitelist path attributes, <code>null</code> uses the variables shared by all verifications.
+     */
+    public void setProperties(Map<String, String> properties)
+    {
+        this.properties = properties;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Verification [distributionArchiveFile=" + distributionArchiveFile + ", whitelist=" + whitelist + ", reportFile=" + reportFile + "]";
+    }
+
+}
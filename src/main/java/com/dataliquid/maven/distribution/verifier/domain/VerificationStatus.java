@@ -17,5 +17,5 @@ package com.dataliquid.maven.distribution.verifier.domain;
 
 public enum VerificationStatus
 {
-    FAILED, SUCCESS
+    FAILED, SUCCESS, TRUNCATED
 }
@@ -22,12 +22,19 @@ public class VerifierResult
 
     private final boolean valid;
     private final List<ResultEntry> resultEntries;
+    private final RunMetrics metrics;
     
     public VerifierResult(boolean valid, List<ResultEntry> resultEntries)
+    {
+        this(valid, resultEntries, null);
+    }
+
+    public VerifierResult(boolean valid, List<ResultEntry> resultEntries, RunMetrics metrics)
     {
         super();
         this.valid = valid;
         this.resultEntries = resultEntries;
+        this.metrics = metrics;
     }
     
     public boolean isValid()
@@ -39,6 +46,30 @@ public class VerifierResult
     {
         return resultEntries;
     }
+
+    /**
+     * @return <code>true</code> if the verification stopped after reaching the maximum number of failures, the result
+     *         entries are incomplete
+     */
+    public boolean isTruncated()
+    {
+        for (ResultEntry resultEntry : resultEntries)
+        {
+            if (VerificationStatus.TRUNCATED.name().equals(resultEntry.getStatus()))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return timings of the verification, not part of the result in terms of {@link #equals(Object)}
+     */
+    public RunMetrics getMetrics()
+    {
+        return metrics;
+    }
     
     @Override
     public int hashCode()
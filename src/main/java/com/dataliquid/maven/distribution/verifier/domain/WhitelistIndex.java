@@ -0,0 +1,190 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.domain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FilenameUtils;
+
+/**
+ * Whitelist entries in document order together with a lookup index keyed by the normalized entry path. Pattern entries
+ * and exclude rules are compiled into a {@link PathPatternIndex} instead.
+ */
+public class WhitelistIndex
+{
+    private final List<Entry> entries = new ArrayList<>();
+
+    private final Map<String, Entry> entriesByPath = new HashMap<>();
+
+    private final PathPatternIndex patterns = new PathPatternIndex();
+
+    private final List<Entry> excludes = new ArrayList<>();
+
+    private final PathPatternIndex excludePatterns = new PathPatternIndex();
+
+    public WhitelistIndex()
+    {
+        super();
+    }
+
+    public WhitelistIndex(List<Entry> entries)
+    {
+        this();
+        for (Entry entry : entries)
+        {
+            addEntry(entry);
+        }
+    }
+
+    public void addEntry(Entry entry)
+    {
+        entries.add(entry);
+        if (entry.isPattern())
+        {
+            patterns.add(entry);
+        }
+        else
+        {
+            entriesByPath.putIfAbsent(normalize(entry.getPath()), entry);
+        }
+    }
+
+    /**
+     * Find the first pattern entry matching the given path, exact entries are not considered.
+     * 
+     * @param path
+     *            distribution path
+     * @return matching pattern entry or <code>null</code>
+     */
+    public Entry findPatternEntry(String path)
+    {
+        return patterns.findEntry(normalizePattern(path));
+    }
+
+    public boolean hasPatterns()
+    {
+        return patterns.size() > 0;
+    }
+
+    /**
+     * Add an exclude rule, the path of the given entry is a glob pattern or a regular expression according to its
+     * pattern syntax.
+     */
+    public void addExclude(Entry exclude)
+    {
+        excludes.add(exclude);
+        excludePatterns.add(exclude);
+    }
+
+    public void addExclude(String pattern, PatternSyntax patternSyntax)
+    {
+        Entry exclude = new Entry();
+        exclude.setPath(pattern);
+        exclude.setPatternSyntax(patternSyntax);
+        addExclude(exclude);
+    }
+
+    /**
+     * Whether the given file is skipped by an exclude rule. Files defined by an exact entry are never excluded.
+     * 
+     * @param path
+     *            distribution path
+     * @return <code>true</code> if the file is neither read nor reported
+     */
+    public boolean isExcluded(String path)
+    {
+        if (excludes.isEmpty() || contains(path))
+        {
+            return false;
+        }
+        return excludePatterns.findEntry(normalizePattern(path)) != null;
+    }
+
+    /**
+     * Whether every file below the given directory is skipped by an exclude rule ending with <code>**</code>, so the
+     * directory does not need to be listed at all. Directories containing a file defined by an exact entry are never
+     * excluded.
+     * 
+     * @param directory
+     *            distribution path of the directory
+     */
+    public boolean isExcludedDirectory(String directory)
+    {
+        if (excludes.isEmpty() || excludePatterns.findSubtreeEntry(normalizePattern(directory)) == null)
+        {
+            return false;
+        }
+        String prefix = normalizePattern(directory).concat("/");
+        for (String path : entriesByPath.keySet())
+        {
+            if (normalizePattern(path).startsWith(prefix))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public List<Entry> getExcludes()
+    {
+        return Collections.unmodifiableList(excludes);
+    }
+
+    public Entry findEntry(String path)
+    {
+        return entriesByPath.get(normalize(path));
+    }
+
+    public boolean contains(String path)
+    {
+        return entriesByPath.containsKey(normalize(path));
+    }
+
+    public List<Entry> getEntries()
+    {
+        return Collections.unmodifiableList(entries);
+    }
+
+    public int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Normalize the given path to the key used by the index, e.g. <code>/lib/./sample.jar</code> becomes
+     * <code>/lib/sample.jar</code>.
+     * 
+     * @param path
+     *            whitelist or distribution path
+     * @return normalized path with unix separators
+     */
+    public static String normalize(String path)
+    {
+        String normalized = FilenameUtils.normalize(path, true);
+        return normalized != null ? normalized : path;
+    }
+
+    private static String normalizePattern(String path)
+    {
+        String normalized = normalize(path);
+        return normalized.startsWith("/") ? normalized : "/" + normalized;
+    }
+
+}
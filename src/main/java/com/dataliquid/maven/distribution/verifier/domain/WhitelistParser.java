@@ -0,0 +1,32 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.domain;
+
+/**
+ * Defines how the whitelist file is parsed.
+ */
+public enum WhitelistParser
+{
+    /**
+     * Pull-parse the whitelist and add every entry to the lookup index as soon as it is read.
+     */
+    STREAM,
+
+    /**
+     * Read the complete whitelist into a document and select the entries by XPath.
+     */
+    DOM
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a single distribution file verified or written to a whitelist. The duration of the event is
+ * the time spent calculating the digests of the file, the event is committed once the outcome is known.
+ */
+@Name(EntryEvent.NAME)
+@Label("Distribution Entry")
+@Category("Distribution Verifier")
+@Description("Digest calculation and outcome of a single distribution file")
+@StackTrace(false)
+public class EntryEvent extends Event
+{
+    public static final String NAME = "com.dataliquid.distribution.verifier.Entry";
+
+    private static final EventType EVENT_TYPE = EventType.getEventType(EntryEvent.class);
+
+    @Label("Goal")
+    private String goal;
+
+    @Label("Path")
+    private String path;
+
+    @Label("Size")
+    @DataAmount
+    private long size;
+
+    @Label("Compression Method")
+    private String compressionMethod;
+
+    @Label("Outcome")
+    private String outcome;
+
+    @Label("Message")
+    private String message;
+
+    /**
+     * @return new event of the given file or <code>null</code> if the event is not recorded, nothing is allocated
+     *         while no recording is running
+     */
+    public static EntryEvent create(String goal, String path)
+    {
+        if (!EVENT_TYPE.isEnabled())
+        {
+            return null;
+        }
+        EntryEvent event = new EntryEvent();
+        event.goal = goal;
+        event.path = path;
+        return event;
+    }
+
+    /**
+     * Start the digest calculation of the file.
+     * 
+     * @param compressionMethod
+     *            compression method of the file in the archive or <code>null</code> if the file is not compressed
+     */
+    public void begin(long size, String compressionMethod)
+    {
+        this.size = size;
+        this.compressionMethod = compressionMethod;
+        begin();
+    }
+
+    /**
+     * Commit the event with the outcome of the file, e.g. <code>SUCCESS</code> or <code>FAILED</code>.
+     */
+    public void commit(String outcome, String message)
+    {
+        this.outcome = outcome;
+        this.message = message;
+        commit();
+    }
+
+    public String getGoal()
+    {
+        return goal;
+    }
+
+    public String getPath()
+    {
+        return path;
+    }
+
+    public long getSize()
+    {
+        return size;
+    }
+
+    public String getCompressionMethod()
+    {
+        return compressionMethod;
+    }
+
+    public String getOutcome()
+    {
+        return outcome;
+    }
+
+    public String getMessage()
+    {
+        return message;
+    }
+
+}
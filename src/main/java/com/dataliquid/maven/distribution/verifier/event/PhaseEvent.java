@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of one phase of a verify or generate run, e.g. unpacking or hashing. A phase started more
+ * than once is recorded as one event per start.
+ */
+@Name(PhaseEvent.NAME)
+@Label("Distribution Phase")
+@Category("Distribution Verifier")
+@Description("Wall time, bytes read and entries processed by one phase of a verify or generate run")
+@StackTrace(false)
+public class PhaseEvent extends Event
+{
+    public static final String NAME = "com.dataliquid.distribution.verifier.Phase";
+
+    private static final EventType EVENT_TYPE = EventType.getEventType(PhaseEvent.class);
+
+    @Label("Goal")
+    private String goal;
+
+    @Label("Phase")
+    private String phase;
+
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    @Label("Entries")
+    private long entries;
+
+    /**
+     * @return new started event of the given phase or <code>null</code> if the event is not recorded
+     */
+    public static PhaseEvent begin(String goal, String phase)
+    {
+        if (!EVENT_TYPE.isEnabled())
+        {
+            return null;
+        }
+        PhaseEvent event = new PhaseEvent();
+        event.goal = goal;
+        event.phase = phase;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commit the event with the bytes read and the entries processed since the phase was started.
+     */
+    public void commit(long bytes, long entries)
+    {
+        this.bytes = bytes;
+        this.entries = entries;
+        commit();
+    }
+
+    public String getGoal()
+    {
+        return goal;
+    }
+
+    public String getPhase()
+    {
+        return phase;
+    }
+
+    public long getBytes()
+    {
+        return bytes;
+    }
+
+    public long getEntries()
+    {
+        return entries;
+    }
+
+}
@@ -16,6 +16,8 @@
 package com.dataliquid.maven.distribution.verifier.mojo;
 
 import java.io.File;
+import java.util.EnumSet;
+import java.util.Set;
 
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -23,12 +25,16 @@ import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
 
+import com.dataliquid.maven.distribution.verifier.domain.ArchiveEngine;
+import com.dataliquid.maven.distribution.verifier.domain.DigestAlgorithm;
+import com.dataliquid.maven.distribution.verifier.domain.RunMetrics;
+import com.dataliquid.maven.distribution.verifier.report.MetricsReport;
 import com.dataliquid.maven.distribution.verifier.service.GenerateService;
 
 /**
  * Goal to generate whitelist template from the distribution archive file.
  */
-@Mojo(name = "generate", requiresProject = false)
+@Mojo(name = "generate", requiresProject = false, threadSafe = true)
 public class GenerateMojo extends AbstractMojo
 {
     @Parameter(defaultValue = "${project}", required = true)
@@ -40,15 +46,156 @@ public class GenerateMojo extends AbstractMojo
     @Parameter(property = "distributionArchiveFile", defaultValue = "${project.build.directory}/${project.build.finalName}.${project.packaging}")
     private File distributionArchiveFile;
 
+    /**
+     * Directory of an assembly in directory format, scanned in place without packing it into an archive first. Takes
+     * precedence over <code>distributionArchiveFile</code>.
+     */
+    @Parameter(property = "distributionDirectory")
+    private File distributionDirectory;
+
     @Parameter(property = "whitelist", defaultValue = "${project.build.directory}/whitelist.tmpl.xml")
     private File whitelist;
 
+    /**
+     * Defines how the distribution archive file is read, <code>unpack</code>, <code>stream</code>,
+     * <code>central-directory</code>, <code>mapped</code> or <code>zipfs</code>. The central directory engine generates
+     * <code>crc32</code> attributes only.
+     */
+    @Parameter(property = "archiveEngine", defaultValue = "unpack")
+    private String archiveEngine;
+
+    /**
+     * Number of threads used to calculate the checksums. Defaults to the number of available processors.
+     */
+    @Parameter(property = "threads")
+    private Integer threads;
+
+    /**
+     * Comma separated digest algorithms added as attributes to every generated entry, <code>md5</code>,
+     * <code>sha1</code>, <code>sha256</code>, <code>sha512</code>, <code>crc32</code> or <code>crc32c</code>.
+     */
+    @Parameter(property = "digestAlgorithms", defaultValue = "md5")
+    private String digestAlgorithms;
+
+    /**
+     * Reuse the digests of entries which are unchanged since a previous build, identified by path, size and CRC-32
+     * checksum. Applies to engines reading the archive directly.
+     */
+    @Parameter(property = "checksumCache", defaultValue = "false")
+    private boolean checksumCache;
+
+    /**
+     * File of the persistent checksum cache.
+     */
+    @Parameter(property = "checksumCacheFile", defaultValue = "${project.build.directory}/checksum-cache/checksums.bin")
+    private File checksumCacheFile;
+
+    /**
+     * Maximum number of cached digests, the least recently used digests are evicted first.
+     */
+    @Parameter(property = "checksumCacheMaxEntries", defaultValue = "500000")
+    private int checksumCacheMaxEntries;
+
+    /**
+     * Maximum depth of nested archives (<code>jar</code>, <code>war</code>, <code>ear</code> and <code>zip</code>)
+     * written with child entries for each file inside them. Defaults to <code>0</code> which writes nested archives as
+     * plain files.
+     */
+    @Parameter(property = "nestedArchiveDepth", defaultValue = "0")
+    private int nestedArchiveDepth;
+
+    /**
+     * Write the wall time, bytes read, entries processed and throughput of every phase as JSON next to the generated
+     * whitelist, e.g. <code>whitelist.tmpl-metrics.json</code>. A one line summary is logged in any case.
+     */
+    @Parameter(property = "metrics", defaultValue = "true")
+    private boolean metrics;
+
     public void execute() throws MojoExecutionException
     {
-        getLog().info("Generating whitelist file for distribution archive file " + distributionArchiveFile);
+        File distribution = determineDistribution();
+        getLog().info("Generating whitelist file for " + (distribution.isDirectory() ? "distribution directory " : "distribution archive file ") + distribution);
         GenerateService verifierPluginService = new GenerateService();
-        verifierPluginService.generate(distributionArchiveFile, outputDirectory, whitelist);
+        verifierPluginService.setArchiveEngine(determineArchiveEngine());
+        if (threads != null)
+        {
+            verifierPluginService.setThreads(threads);
+        }
+        verifierPluginService.setDigestAlgorithms(determineDigestAlgorithms());
+        if (checksumCache)
+        {
+            verifierPluginService.setChecksumCacheFile(checksumCacheFile);
+            verifierPluginService.setChecksumCacheMaxEntries(checksumCacheMaxEntries);
+        }
+        verifierPluginService.setNestedArchiveDepth(nestedArchiveDepth);
+        RunMetrics runMetrics = verifierPluginService.generate(distribution, outputDirectory, whitelist);
         getLog().info("Whitelist generated.");
+        getLog().info("Metrics: " + runMetrics.toSummary());
+        if (metrics)
+        {
+            generateMetricsReport(runMetrics, MetricsReport.getMetricsFileName(whitelist.getPath()));
+        }
+    }
+
+    private void generateMetricsReport(RunMetrics runMetrics, String metricsFile) throws MojoExecutionException
+    {
+        try
+        {
+            new MetricsReport().generateReport(runMetrics, metricsFile);
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+            getLog().error("Error occurred while creating the metrics file:" + e.getMessage());
+            throw new MojoExecutionException("Metrics generation failed!", e);
+        }
+    }
+
+    private File determineDistribution() throws MojoExecutionException
+    {
+        if (distributionDirectory == null)
+        {
+            return distributionArchiveFile;
+        }
+        if (!distributionDirectory.isDirectory())
+        {
+            throw new MojoExecutionException(String.format("distributionDirectory [%s] is not a directory", distributionDirectory));
+        }
+        return distributionDirectory;
+    }
+
+    private ArchiveEngine determineArchiveEngine() throws MojoExecutionException
+    {
+        try
+        {
+            return ArchiveEngine.valueOf(archiveEngine.toUpperCase().trim().replace('-', '_'));
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new MojoExecutionException(String.format("archiveEngine [%s] is not a valid archiveEngine use [unpack], [stream], [central-directory], [mapped] or [zipfs]", archiveEngine));
+        }
+    }
+
+    private Set<DigestAlgorithm> determineDigestAlgorithms() throws MojoExecutionException
+    {
+        Set<DigestAlgorithm> algorithms = EnumSet.noneOf(DigestAlgorithm.class);
+        for (String name : digestAlgorithms.split(","))
+        {
+            if (name.trim().isEmpty())
+            {
+                continue;
+            }
+            try
+            {
+                algorithms.add(DigestAlgorithm.fromName(name.trim()));
+            }
+            catch (IllegalArgumentException e)
+            {
+                throw new MojoExecutionException(String.format(
+                        "digestAlgorithms [%s] contains an invalid algorithm use [md5], [sha1], [sha256], [sha512], [crc32] or [crc32c]", digestAlgorithms));
+            }
+        }
+        return algorithms;
     }
 
     public MavenProject getProject()
@@ -81,6 +228,16 @@ public class GenerateMojo extends AbstractMojo
         this.distributionArchiveFile = distributionArchiveFile;
     }
 
+    public File getDistributionDirectory()
+    {
+        return distributionDirectory;
+    }
+
+    public void setDistributionDirectory(File distributionDirectory)
+    {
+        this.distributionDirectory = distributionDirectory;
+    }
+
     public File getWhitelist()
     {
         return whitelist;
@@ -91,4 +248,84 @@ public class GenerateMojo extends AbstractMojo
         this.whitelist = whitelist;
     }
 
+    public String getArchiveEngine()
+    {
+        return archiveEngine;
+    }
+
+    public void setArchiveEngine(String archiveEngine)
+    {
+        this.archiveEngine = archiveEngine;
+    }
+
+    public String getDigestAlgorithms()
+    {
+        return digestAlgorithms;
+    }
+
+    public void setDigestAlgorithms(String digestAlgorithms)
+    {
+        this.digestAlgorithms = digestAlgorithms;
+    }
+
+    public boolean isChecksumCache()
+    {
+        return checksumCache;
+    }
+
+    public void setChecksumCache(boolean checksumCache)
+    {
+        this.checksumCache = checksumCache;
+    }
+
+    public File getChecksumCacheFile()
+    {
+        return checksumCacheFile;
+    }
+
+    public void setChecksumCacheFile(File checksumCacheFile)
+    {
+        this.checksumCacheFile = checksumCacheFile;
+    }
+
+    public int getNestedArchiveDepth()
+    {
+        return nestedArchiveDepth;
+    }
+
+    public void setNestedArchiveDepth(int nestedArchiveDepth)
+    {
+        this.nestedArchiveDepth = nestedArchiveDepth;
+    }
+
+    public boolean isMetrics()
+    {
+        return metrics;
+    }
+
+    public void setMetrics(boolean metrics)
+    {
+        this.metrics = metrics;
+    }
+
+    public int getChecksumCacheMaxEntries()
+    {
+        return checksumCacheMaxEntries;
+    }
+
+    public void setChecksumCacheMaxEntries(int checksumCacheMaxEntries)
+    {
+        this.checksumCacheMaxEntries = checksumCacheMaxEntries;
+    }
+
+    public Integer getThreads()
+    {
+        return threads;
+    }
+
+    public void setThreads(Integer threads)
+    {
+        this.threads = threads;
+    }
+
 }
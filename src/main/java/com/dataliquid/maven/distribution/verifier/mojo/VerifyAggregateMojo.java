@@ -0,0 +1,169 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.mojo;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+import com.dataliquid.maven.distribution.verifier.domain.Verification;
+
+/**
+ * Goal to verify the distribution archive files of all modules of the reactor in one pass. Every module configuring
+ * this plugin contributes its <code>distributionArchiveFile</code>, <code>whitelist</code>, <code>reportFile</code> and
+ * <code>properties</code>, the archives are verified concurrently with the thread budget of this goal. Run it after the
+ * archives have been built, e.g. <code>mvn verify distribution-verifier:verify-aggregate</code>.
+ */
+@Mojo(name = "verify-aggregate", aggregator = true, threadSafe = true)
+public class VerifyAggregateMojo extends VerifyMojo
+{
+    private static final String PLUGIN_KEY = "com.dataliquid.maven:distribution-verifier-maven-plugin";
+
+    private static final String VERIFY_GOAL = "verify";
+
+    private static final String POM_PACKAGING = "pom";
+
+    @Parameter(defaultValue = "${reactorProjects}", readonly = true, required = true)
+    private List<MavenProject> reactorProjects;
+
+    @Override
+    public void execute() throws MojoExecutionException
+    {
+        List<Verification> moduleVerifications = collectVerifications();
+        if (moduleVerifications.isEmpty())
+        {
+            getLog().info("No module of the reactor configures a distribution archive file to verify.");
+            return;
+        }
+        setVerifications(moduleVerifications);
+        super.execute();
+    }
+
+    List<Verification> collectVerifications()
+    {
+        List<Verification> moduleVerifications = new ArrayList<>();
+        for (MavenProject reactorProject : reactorProjects)
+        {
+            Plugin plugin = reactorProject.getPlugin(PLUGIN_KEY);
+            if (plugin == null)
+            {
+                continue;
+            }
+            List<Xpp3Dom> configurations = collectConfigurations(plugin);
+            String distributionArchiveFile = getValue(configurations, "distributionArchiveFile");
+            if (distributionArchiveFile == null && POM_PACKAGING.equals(reactorProject.getPackaging()))
+            {
+                getLog().debug("Module " + reactorProject.getId() + " has no distribution archive file");
+                continue;
+            }
+
+            File buildDirectory = new File(reactorProject.getBuild().getDirectory());
+            Verification verification = new Verification();
+            verification.setDistributionArchiveFile(distributionArchiveFile != null ? resolve(reactorProject, distributionArchiveFile)
+                    : new File(buildDirectory, reactorProject.getBuild().getFinalName() + "." + reactorProject.getPackaging()));
+            String whitelist = getValue(configurations, "whitelist");
+            verification.setWhitelist(resolve(reactorProject, whitelist != null ? whitelist : "src/main/resources/whitelist.xml"));
+            String reportFile = getValue(configurations, "reportFile");
+            verification.setReportFile(reportFile != null ? resolve(reactorProject, reportFile).getPath() : new File(buildDirectory, "report.xml").getPath());
+            verification.setProperties(collectProperties(reactorProject, configurations));
+            getLog().info("Collected distribution archive file " + verification.getDistributionArchiveFile() + " of module " + reactorProject.getId());
+            moduleVerifications.add(verification);
+        }
+        return moduleVerifications;
+    }
+
+    /**
+     * Configurations of the executions running the verify goal followed by the configuration of the plugin, the first
+     * value found wins.
+     */
+    private List<Xpp3Dom> collectConfigurations(Plugin plugin)
+    {
+        List<Xpp3Dom> configurations = new ArrayList<>();
+        for (PluginExecution execution : plugin.getExecutions())
+        {
+            if (execution.getGoals().contains(VERIFY_GOAL) && execution.getConfiguration() instanceof Xpp3Dom)
+            {
+                configurations.add((Xpp3Dom) execution.getConfiguration());
+            }
+        }
+        if (plugin.getConfiguration() instanceof Xpp3Dom)
+        {
+            configurations.add((Xpp3Dom) plugin.getConfiguration());
+        }
+        return configurations;
+    }
+
+    private String getValue(List<Xpp3Dom> configurations, String name)
+    {
+        for (Xpp3Dom configuration : configurations)
+        {
+            Xpp3Dom child = configuration.getChild(name);
+            if (child != null && child.getValue() != null && !child.getValue().trim().isEmpty())
+            {
+                return child.getValue().trim();
+            }
+        }
+        return null;
+    }
+
+    private Map<String, String> collectProperties(MavenProject reactorProject, List<Xpp3Dom> configurations)
+    {
+        Map<String, String> moduleProperties = new LinkedHashMap<>();
+        for (Xpp3Dom configuration : configurations)
+        {
+            Xpp3Dom properties = configuration.getChild("properties");
+            if (properties != null && properties.getChildren().length > 0)
+            {
+                for (Xpp3Dom property : properties.getChildren())
+                {
+                    moduleProperties.put(property.getName(), property.getValue());
+                }
+                return moduleProperties;
+            }
+        }
+        moduleProperties.put("project.groupId", reactorProject.getGroupId());
+        moduleProperties.put("project.artifactId", reactorProject.getArtifactId());
+        moduleProperties.put("project.version", reactorProject.getVersion());
+        return moduleProperties;
+    }
+
+    private File resolve(MavenProject reactorProject, String path)
+    {
+        File file = new File(path);
+        return file.isAbsolute() ? file : new File(reactorProject.getBasedir(), path);
+    }
+
+    public List<MavenProject> getReactorProjects()
+    {
+        return reactorProjects;
+    }
+
+    public void setReactorProjects(List<MavenProject> reactorProjects)
+    {
+        this.reactorProjects = reactorProjects;
+    }
+
+}
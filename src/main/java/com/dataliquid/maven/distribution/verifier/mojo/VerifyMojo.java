@@ -16,6 +16,7 @@
 package com.dataliquid.maven.distribution.verifier.mojo;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,17 +28,24 @@ import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
 
+import com.dataliquid.maven.distribution.verifier.domain.ArchiveEngine;
+import com.dataliquid.maven.distribution.verifier.domain.PhaseMetrics;
 import com.dataliquid.maven.distribution.verifier.domain.ResultEntry;
+import com.dataliquid.maven.distribution.verifier.domain.RunMetrics;
+import com.dataliquid.maven.distribution.verifier.domain.Verification;
 import com.dataliquid.maven.distribution.verifier.domain.VerifierResult;
+import com.dataliquid.maven.distribution.verifier.domain.WhitelistParser;
 import com.dataliquid.maven.distribution.verifier.report.JUnitReport;
+import com.dataliquid.maven.distribution.verifier.report.MetricsReport;
 import com.dataliquid.maven.distribution.verifier.report.Report;
+import com.dataliquid.maven.distribution.verifier.report.SummaryReport;
 import com.dataliquid.maven.distribution.verifier.report.XmlReport;
 import com.dataliquid.maven.distribution.verifier.service.VerifierService;
 
 /**
  * Goal to verify the distribution archive file.
  */
-@Mojo(name = "verify", defaultPhase = LifecyclePhase.VERIFY)
+@Mojo(name = "verify", defaultPhase = LifecyclePhase.VERIFY, threadSafe = true)
 public class VerifyMojo extends AbstractMojo
 {
     @Parameter(defaultValue = "${project}", required = true)
@@ -49,15 +57,153 @@ public class VerifyMojo extends AbstractMojo
     @Parameter(property = "distributionArchiveFile", defaultValue = "${project.build.directory}/${project.build.finalName}.${project.packaging}")
     private File distributionArchiveFile;
 
+    /**
+     * Directory of an assembly in directory format, verified in place without packing it into an archive first. Takes
+     * precedence over <code>distributionArchiveFile</code>.
+     */
+    @Parameter(property = "distributionDirectory")
+    private File distributionDirectory;
+
     @Parameter(property = "whitelist", defaultValue = "src/main/resources/whitelist.xml")
     private File whitelist;
 
     @Parameter(property = "report", defaultValue = "${project.build.directory}/report.xml")
     private String reportFile;
 
+    /**
+     * Several distribution archive files verified concurrently in one execution, e.g. the classifiers of a build. All
+     * archives share one pool of {@link #threads} threads, each one gets its own report and a summary report lists all
+     * of them. Overrides <code>distributionArchiveFile</code>, a missing <code>whitelist</code> defaults to the
+     * <code>whitelist</code> parameter and a missing <code>reportFile</code> to
+     * <code>${project.build.directory}/&lt;archive name&gt;-report.xml</code>.
+     * 
+     * <pre>
+     * <verifications>
+     *   <verification>
+     *     <distributionArchiveFile>${project.build.directory}/sample-linux.zip</distributionArchiveFile>
+     *     <whitelist>src/main/resources/whitelist-linux.xml</whitelist>
+     *     <reportFile>${project.build.directory}/report-linux.xml</reportFile>
+     *   </verification>
+     * </verifications>
+     * </pre>
+     */
+    @Parameter
+    private List<Verification> verifications;
+
+    /**
+     * Summary report of all <code>verifications</code>.
+     */
+    @Parameter(property = "summaryReport", defaultValue = "${project.build.directory}/report-summary.xml")
+    private String summaryReportFile;
+
     @Parameter(property = "reportType", defaultValue = "xml")
     private String reportType;
 
+    /**
+     * Defines how the distribution archive file is read. <code>unpack</code> extracts the archive into the output
+     * directory before verifying, <code>stream</code> verifies the entries directly within the archive without writing
+     * any temporary files, <code>central-directory</code> only compares the <code>crc32</code> attributes with the
+     * checksums stored in the archive without reading any entry content and fails entries without a <code>crc32</code>
+     * attribute, <code>mapped</code> works like
+     * <code>stream</code> but hashes STORED entries directly from the memory mapped archive and <code>zipfs</code>
+     * walks the archive mounted by the zip file system provider of the JDK.
+     */
+    @Parameter(property = "archiveEngine", defaultValue = "unpack")
+    private String archiveEngine;
+
+    /**
+     * Number of threads used to calculate the checksums. Defaults to the number of available processors, use
+     * <code>1</code> to verify sequentially.
+     */
+    @Parameter(property = "threads")
+    private Integer threads;
+
+    /**
+     * Defines how the whitelist file is parsed. <code>stream</code> pull-parses the entries straight into the lookup
+     * index, <code>dom</code> reads the complete document first and selects the entries by XPath.
+     */
+    @Parameter(property = "whitelistParser", defaultValue = "stream")
+    private String whitelistParser;
+
+    /**
+     * Compile the whitelist and the resolved properties into a binary index, which is reused by later builds as long as
+     * both are unchanged.
+     */
+    @Parameter(property = "whitelistIndexCache", defaultValue = "true")
+    private boolean whitelistIndexCache;
+
+    /**
+     * Directory of the compiled whitelist indexes.
+     */
+    @Parameter(property = "whitelistIndexDirectory", defaultValue = "${project.build.directory}/whitelist-index")
+    private File whitelistIndexDirectory;
+
+    /**
+     * Reuse the digests of entries which are unchanged since a previous build, identified by path, size and CRC-32
+     * checksum. Applies to engines reading the archive directly.
+     */
+    @Parameter(property = "checksumCache", defaultValue = "false")
+    private boolean checksumCache;
+
+    /**
+     * File of the persistent checksum cache.
+     */
+    @Parameter(property = "checksumCacheFile", defaultValue = "${project.build.directory}/checksum-cache/checksums.bin")
+    private File checksumCacheFile;
+
+    /**
+     * Maximum number of cached digests, the least recently used digests are evicted first.
+     */
+    @Parameter(property = "checksumCacheMaxEntries", defaultValue = "500000")
+    private int checksumCacheMaxEntries;
+
+    /**
+     * Maximum depth of nested archives, e.g. a jar inside a war, verified against the child entries of their whitelist
+     * entry. Nested archives are read as a stream and never extracted, use <code>0</code> to verify them as plain
+     * files.
+     */
+    @Parameter(property = "nestedArchiveDepth", defaultValue = "8")
+    private int nestedArchiveDepth;
+
+    /**
+     * Glob patterns of files which are skipped in addition to the <code>exclude</code> rules of the whitelist. Excluded
+     * files are neither unpacked, hashed nor reported.
+     * 
+     * <pre>
+     * <excludes>
+     *   <exclude>/docs/**</exclude>
+     * </excludes>
+     * </pre>
+     */
+    @Parameter
+    private List<String> excludes;
+
+    /**
+     * Write the wall time, bytes read, entries processed and throughput of every phase as JSON next to each report,
+     * e.g. <code>report-metrics.json</code> for <code>report.xml</code>. A one line summary is logged in any case.
+     */
+    @Parameter(property = "metrics", defaultValue = "true")
+    private boolean metrics;
+
+    /**
+     * Stop the verification of a distribution archive once <code>maxFailures</code> files failed. Pending checksums are
+     * cancelled and the report ends with a <code>truncated</code> element, intended for pre-merge builds where any
+     * failure rejects the change. Files which fail without being read, missing and undefined files, are counted before
+     * any checksum is calculated, so no file beyond the limit is read. Tar archives are read only until
+     * <code>maxFailures</code> undefined files were found. Checksum mismatches are only known once the checksums are
+     * calculated, files already hashed in parallel are read to the end. The <code>unpack</code> engine extracts the
+     * whole archive before the verification starts, use the <code>stream</code>, <code>mapped</code> or
+     * <code>zipfs</code> engine to stop early.
+     */
+    @Parameter(property = "failFast", defaultValue = "false")
+    private boolean failFast;
+
+    /**
+     * Number of failed files which stops the verification in fail fast mode.
+     */
+    @Parameter(property = "maxFailures", defaultValue = "1")
+    private int maxFailures;
+
     /**
      * Variables which can be used in whitelist path attribute.
      * 
@@ -76,17 +222,152 @@ public class VerifyMojo extends AbstractMojo
     public void execute() throws MojoExecutionException
     {
         initialize();
-        getLog().info("Verifying the distribution archive file " + distributionArchiveFile);
         VerifierService verifierPluginService = new VerifierService();
-        VerifierResult verifierResult = verifierPluginService.verify(distributionArchiveFile, outputDirectory, whitelist, properties);
-        generateReport(verifierResult.getResultEntries(), reportFile);
+        verifierPluginService.setArchiveEngine(determineArchiveEngine());
+        verifierPluginService.setWhitelistParser(determineWhitelistParser());
+        if (whitelistIndexCache)
+        {
+            verifierPluginService.setWhitelistIndexDirectory(whitelistIndexDirectory);
+        }
+        if (threads != null)
+        {
+            verifierPluginService.setThreads(threads);
+        }
+        if (checksumCache)
+        {
+            verifierPluginService.setChecksumCacheFile(checksumCacheFile);
+            verifierPluginService.setChecksumCacheMaxEntries(checksumCacheMaxEntries);
+        }
+        verifierPluginService.setNestedArchiveDepth(nestedArchiveDepth);
+        verifierPluginService.setExcludes(excludes);
+        if (failFast)
+        {
+            verifierPluginService.setMaxFailures(determineMaxFailures());
+        }
+        if (verifications != null && !verifications.isEmpty())
+        {
+            verifyAll(verifierPluginService);
+            return;
+        }
+        File distribution = determineDistribution();
+        getLog().info("Verifying the " + (distribution.isDirectory() ? "distribution directory " : "distribution archive file ") + distribution);
+        VerifierResult verifierResult = verifierPluginService.verify(distribution, outputDirectory, whitelist, properties);
+        generateReport(verifierResult, reportFile);
         if (verifierResult.isValid())
         {
             getLog().info("Verification finished successfully.");
         }
         else
         {
-            throw new MojoExecutionException("Verification failed! Report file generated: " + reportFile);
+            String failure = verifierResult.isTruncated() ? "Verification failed after " + maxFailures + " failures!" : "Verification failed!";
+            throw new MojoExecutionException(failure + " Report file generated: " + reportFile);
+        }
+    }
+
+    private void verifyAll(VerifierService verifierPluginService) throws MojoExecutionException
+    {
+        List<Verification> resolvedVerifications = resolveVerifications();
+        getLog().info("Verifying " + resolvedVerifications.size() + " distribution archive files");
+        List<VerifierResult> verifierResults;
+        try
+        {
+            verifierResults = verifierPluginService.verify(resolvedVerifications, outputDirectory, properties);
+        }
+        catch (Exception e)
+        {
+            throw new MojoExecutionException("Verification failed! Not all distribution archive files could be verified: " + e.getMessage(), e);
+        }
+        boolean valid = true;
+        for (int i = 0; i < resolvedVerifications.size(); i++)
+        {
+            Verification verification = resolvedVerifications.get(i);
+            VerifierResult verifierResult = verifierResults.get(i);
+            generateReport(verifierResult, verification.getReportFile());
+            getLog().info((verifierResult.isValid() ? "Verified " : "Verification failed for ") + verification.getDistributionArchiveFile()
+                    + " - Report file generated: " + verification.getReportFile());
+            valid &= verifierResult.isValid();
+        }
+        generateSummaryReport(resolvedVerifications, verifierResults);
+        if (valid)
+        {
+            getLog().info("Verification finished successfully.");
+        }
+        else
+        {
+            throw new MojoExecutionException("Verification failed! Summary report file generated: " + summaryReportFile);
+        }
+    }
+
+    private List<Verification> resolveVerifications() throws MojoExecutionException
+    {
+        List<Verification> resolvedVerifications = new ArrayList<>(verifications.size());
+        for (Verification verification : verifications)
+        {
+            if (verification.getDistributionArchiveFile() == null)
+            {
+                throw new MojoExecutionException(String.format("verification [%s] requires a distributionArchiveFile", verification));
+            }
+            File verificationWhitelist = verification.getWhitelist() != null ? verification.getWhitelist() : whitelist;
+            String verificationReportFile = verification.getReportFile() != null ? verification.getReportFile()
+                    : new File(outputDirectory, verification.getDistributionArchiveFile().getName() + "-report.xml").getPath();
+            Verification resolvedVerification = new Verification(verification.getDistributionArchiveFile(), verificationWhitelist, verificationReportFile);
+            resolvedVerification.setProperties(verification.getProperties());
+            resolvedVerifications.add(resolvedVerification);
+        }
+        return resolvedVerifications;
+    }
+
+    private void generateSummaryReport(List<Verification> resolvedVerifications, List<VerifierResult> verifierResults) throws MojoExecutionException
+    {
+        try
+        {
+            new SummaryReport().generateReport(resolvedVerifications, verifierResults, summaryReportFile);
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+            getLog().error("Error occurred while creating the summary report file:" + e.getMessage());
+            throw new MojoExecutionException("Summary report generation failed!", e);
+        }
+    }
+
+    private void generateReport(VerifierResult verifierResult, String reportFile) throws MojoExecutionException
+    {
+        RunMetrics runMetrics = verifierResult.getMetrics();
+        if (runMetrics == null)
+        {
+            generateReport(verifierResult.getResultEntries(), reportFile);
+            return;
+        }
+        PhaseMetrics reportMetrics = runMetrics.phase(RunMetrics.REPORT);
+        reportMetrics.start();
+        try
+        {
+            generateReport(verifierResult.getResultEntries(), reportFile);
+            reportMetrics.addEntries(verifierResult.getResultEntries().size());
+        }
+        finally
+        {
+            reportMetrics.stop();
+        }
+        getLog().info("Metrics: " + runMetrics.toSummary());
+        if (metrics)
+        {
+            generateMetricsReport(runMetrics, MetricsReport.getMetricsFileName(reportFile));
+        }
+    }
+
+    private void generateMetricsReport(RunMetrics runMetrics, String metricsFile) throws MojoExecutionException
+    {
+        try
+        {
+            new MetricsReport().generateReport(runMetrics, metricsFile);
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+            getLog().error("Error occurred while creating the metrics file:" + e.getMessage());
+            throw new MojoExecutionException("Metrics generation failed!", e);
         }
     }
 
@@ -124,6 +405,52 @@ public class VerifyMojo extends AbstractMojo
         return report;
     }
 
+    private ArchiveEngine determineArchiveEngine() throws MojoExecutionException
+    {
+        try
+        {
+            return ArchiveEngine.valueOf(archiveEngine.toUpperCase().trim().replace('-', '_'));
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new MojoExecutionException(String.format("archiveEngine [%s] is not a valid archiveEngine use [unpack], [stream], [central-directory], [mapped] or [zipfs]", archiveEngine));
+        }
+    }
+
+    private File determineDistribution() throws MojoExecutionException
+    {
+        if (distributionDirectory == null)
+        {
+            return distributionArchiveFile;
+        }
+        if (!distributionDirectory.isDirectory())
+        {
+            throw new MojoExecutionException(String.format("distributionDirectory [%s] is not a directory", distributionDirectory));
+        }
+        return distributionDirectory;
+    }
+
+    private int determineMaxFailures() throws MojoExecutionException
+    {
+        if (maxFailures < 1)
+        {
+            throw new MojoExecutionException(String.format("maxFailures [%s] is not a valid maxFailures use a number greater than [0]", maxFailures));
+        }
+        return maxFailures;
+    }
+
+    private WhitelistParser determineWhitelistParser() throws MojoExecutionException
+    {
+        try
+        {
+            return WhitelistParser.valueOf(whitelistParser.toUpperCase().trim());
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new MojoExecutionException(String.format("whitelistParser [%s] is not a valid whitelistParser use [stream] or [dom]", whitelistParser));
+        }
+    }
+
     private void initialize()
     {
         if (properties == null || properties.isEmpty())
@@ -165,6 +492,16 @@ public class VerifyMojo extends AbstractMojo
         this.distributionArchiveFile = distributionArchiveFile;
     }
 
+    public File getDistributionDirectory()
+    {
+        return distributionDirectory;
+    }
+
+    public void setDistributionDirectory(File distributionDirectory)
+    {
+        this.distributionDirectory = distributionDirectory;
+    }
+
     public File getWhitelist()
     {
         return whitelist;
@@ -185,4 +522,154 @@ public class VerifyMojo extends AbstractMojo
         this.reportFile = reportFile;
     }
 
+    public boolean isChecksumCache()
+    {
+        return checksumCache;
+    }
+
+    public void setChecksumCache(boolean checksumCache)
+    {
+        this.checksumCache = checksumCache;
+    }
+
+    public File getChecksumCacheFile()
+    {
+        return checksumCacheFile;
+    }
+
+    public void setChecksumCacheFile(File checksumCacheFile)
+    {
+        this.checksumCacheFile = checksumCacheFile;
+    }
+
+    public List<Verification> getVerifications()
+    {
+        return verifications;
+    }
+
+    public void setVerifications(List<Verification> verifications)
+    {
+        this.verifications = verifications;
+    }
+
+    public String getSummaryReportFile()
+    {
+        return summaryReportFile;
+    }
+
+    public void setSummaryReportFile(String summaryReportFile)
+    {
+        this.summaryReportFile = summaryReportFile;
+    }
+
+    public int getNestedArchiveDepth()
+    {
+        return nestedArchiveDepth;
+    }
+
+    public void setNestedArchiveDepth(int nestedArchiveDepth)
+    {
+        this.nestedArchiveDepth = nestedArchiveDepth;
+    }
+
+    public boolean isMetrics()
+    {
+        return metrics;
+    }
+
+    public void setMetrics(boolean metrics)
+    {
+        this.metrics = metrics;
+    }
+
+    public boolean isFailFast()
+    {
+        return failFast;
+    }
+
+    public void setFailFast(boolean failFast)
+    {
+        this.failFast = failFast;
+    }
+
+    public int getMaxFailures()
+    {
+        return maxFailures;
+    }
+
+    public void setMaxFailures(int maxFailures)
+    {
+        this.maxFailures = maxFailures;
+    }
+
+    public List<String> getExcludes()
+    {
+        return excludes;
+    }
+
+    public void setExcludes(List<String> excludes)
+    {
+        this.excludes = excludes;
+    }
+
+    public int getChecksumCacheMaxEntries()
+    {
+        return checksumCacheMaxEntries;
+    }
+
+    public void setChecksumCacheMaxEntries(int checksumCacheMaxEntries)
+    {
+        this.checksumCacheMaxEntries = checksumCacheMaxEntries;
+    }
+
+    public Integer getThreads()
+    {
+        return threads;
+    }
+
+    public void setThreads(Integer threads)
+    {
+        this.threads = threads;
+    }
+
+    public String getWhitelistParser()
+    {
+        return whitelistParser;
+    }
+
+    public void setWhitelistParser(String whitelistParser)
+    {
+        this.whitelistParser = whitelistParser;
+    }
+
+    public boolean isWhitelistIndexCache()
+    {
+        return whitelistIndexCache;
+    }
+
+    public void setWhitelistIndexCache(boolean whitelistIndexCache)
+    {
+        this.whitelistIndexCache = whitelistIndexCache;
+    }
+
+    public File getWhitelistIndexDirectory()
+    {
+        return whitelistIndexDirectory;
+    }
+
+    public void setWhitelistIndexDirectory(File whitelistIndexDirectory)
+    {
+        this.whitelistIndexDirectory = whitelistIndexDirectory;
+    }
+
+    public String getArchiveEngine()
+    {
+        return archiveEngine;
+    }
+
+    public void setArchiveEngine(String archiveEngine)
+    {
+        this.archiveEngine = archiveEngine;
+    }
+
 }
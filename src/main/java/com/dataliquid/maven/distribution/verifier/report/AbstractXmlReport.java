@@ -15,27 +15,15 @@
  */
 package com.dataliquid.maven.distribution.verifier.report;
 
-import java.io.FileWriter;
-
-import org.dom4j.Document;
-import org.dom4j.io.OutputFormat;
-import org.dom4j.io.XMLWriter;
-
 public abstract class AbstractXmlReport implements Report
 {
 
-    protected void writeFile(String reportFileName, Document document) throws Exception
+    /**
+     * Open a streaming writer for the report file, closing the writer completes the document.
+     */
+    protected ReportXmlWriter openWriter(String reportFileName) throws Exception
     {
-        try (FileWriter writer = new FileWriter(reportFileName))
-        {
-            OutputFormat format = OutputFormat.createPrettyPrint();
-            XMLWriter xmlWriter = new XMLWriter(writer, format);
-            xmlWriter.write(document);
-        }
-        catch (Exception e)
-        {
-            throw e;
-        }
+        return ReportXmlWriter.open(reportFileName);
     }
 
 }
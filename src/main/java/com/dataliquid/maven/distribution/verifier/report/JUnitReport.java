@@ -17,9 +17,8 @@ package com.dataliquid.maven.distribution.verifier.report;
 
 import java.util.List;
 
-import org.dom4j.Document;
-import org.dom4j.DocumentHelper;
-import org.dom4j.Element;
+import javax.xml.stream.XMLStreamException;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,45 +28,87 @@ import com.dataliquid.maven.distribution.verifier.domain.VerificationStatus;
 public class JUnitReport extends AbstractXmlReport
 {
 
+    private static final String SUITE_NAME = "Verifier";
+
+    /**
+     * Name of the skipped test case which reports a truncated verification.
+     */
+    private static final String TRUNCATED_NAME = "truncated";
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     @Override
     public void generateReport(List<ResultEntry> results, String reportFileName) throws Exception
     {
         logger.info("start generating junit report");
-        Document document = DocumentHelper.createDocument();
-        final Element testsuite = registerTestSuiteInDocument(results, document);
-
-        for (ResultEntry resultEntry : results)
+        try (ReportXmlWriter writer = openWriter(reportFileName))
         {
-            final Element testCase = testsuite.addElement("testcase");
-            testCase.addAttribute("classname", resultEntry.getPath());
-            testCase.addAttribute("name", resultEntry.getPath());
-            testCase.addAttribute("time", "0");
-            if (VerificationStatus.FAILED.name().equals(resultEntry.getStatus()))
+            writeTestSuite(results, writer);
+
+            for (ResultEntry resultEntry : results)
             {
-                final Element error = testCase.addElement("error");
-                error.addAttribute("message", resultEntry.getMessage());
-                error.addAttribute("type", "error");
-                error.addText(resultEntry.getMessage());
+                if (VerificationStatus.FAILED.name().equals(resultEntry.getStatus()))
+                {
+                    writer.startElement("testcase");
+                    writeTestCaseAttributes(resultEntry, writer);
+                    writer.startElement("error");
+                    writer.attribute("message", resultEntry.getMessage());
+                    writer.attribute("type", "error");
+                    writer.text(resultEntry.getMessage());
+                    writer.endElement();
+                    writer.endElement();
+                }
+                else if (VerificationStatus.TRUNCATED.name().equals(resultEntry.getStatus()))
+                {
+                    writer.startElement("testcase");
+                    writer.attribute("classname", SUITE_NAME);
+                    writer.attribute("name", TRUNCATED_NAME);
+                    writer.attribute("time", "0");
+                    writer.emptyElement("skipped");
+                    writer.attribute("message", resultEntry.getMessage());
+                    writer.endElement();
+                }
+                else
+                {
+                    writer.emptyElement("testcase");
+                    writeTestCaseAttributes(resultEntry, writer);
+                }
             }
+            writer.endElement();
         }
-
-        writeFile(reportFileName, document);
         logger.info("report has been written to:" + reportFileName);
     }
 
-    private Element registerTestSuiteInDocument(List<ResultEntry> results, Document document)
+    private void writeTestSuite(List<ResultEntry> results, ReportXmlWriter writer) throws XMLStreamException
     {
-        Element testsuite = document.addElement("testsuite");
+        writer.startElement("testsuite");
         final String zero = String.valueOf(0);
-        testsuite.addAttribute("tests", String.valueOf(results.size()));
-        testsuite.addAttribute("failures", zero);
-        testsuite.addAttribute("name", "Verifier");
-        testsuite.addAttribute("time", zero);
-        testsuite.addAttribute("errors", zero);
-        testsuite.addAttribute("skipped", zero);
-        return testsuite;
+        writer.attribute("tests", String.valueOf(results.size()));
+        writer.attribute("failures", zero);
+        writer.attribute("name", SUITE_NAME);
+        writer.attribute("time", zero);
+        writer.attribute("errors", zero);
+        writer.attribute("skipped", String.valueOf(countTruncated(results)));
+    }
+
+    private long countTruncated(List<ResultEntry> results)
+    {
+        long truncated = 0;
+        for (ResultEntry resultEntry : results)
+        {
+            if (VerificationStatus.TRUNCATED.name().equals(resultEntry.getStatus()))
+            {
+                truncated++;
+            }
+        }
+        return truncated;
+    }
+
+    private void writeTestCaseAttributes(ResultEntry resultEntry, ReportXmlWriter writer) throws XMLStreamException
+    {
+        writer.attribute("classname", resultEntry.getPath());
+        writer.attribute("name", resultEntry.getPath());
+        writer.attribute("time", "0");
     }
 
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.report;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.dataliquid.maven.distribution.verifier.domain.PhaseMetrics;
+import com.dataliquid.maven.distribution.verifier.domain.RunMetrics;
+
+/**
+ * Machine readable JSON summary of a run with wall time, bytes read, entries processed and throughput per phase.
+ */
+public class MetricsReport
+{
+    private static final String METRICS_SUFFIX = "-metrics.json";
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    public void generateReport(RunMetrics metrics, String reportFileName) throws Exception
+    {
+        File reportFile = new File(reportFileName);
+        if (reportFile.getParentFile() != null)
+        {
+            FileUtils.forceMkdir(reportFile.getParentFile());
+        }
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(reportFile), StandardCharsets.UTF_8)))
+        {
+            writer.write("{\n");
+            writeProperty(writer, "  ", "goal", quote(metrics.getGoal()), true);
+            writeProperty(writer, "  ", "distributionArchive", quote(metrics.getDistributionArchiveFile().getPath()), true);
+            writeProperty(writer, "  ", "status", metrics.getStatus() != null ? quote(metrics.getStatus()) : "null", true);
+            writeProperty(writer, "  ", "timestamp", quote(Instant.now().toString()), true);
+            writeProperty(writer, "  ", "durationMillis", format(metrics.getDurationMillis()), true);
+            writer.write("  \"phases\": [");
+            List<PhaseMetrics> phases = metrics.getPhases();
+            for (int i = 0; i < phases.size(); i++)
+            {
+                PhaseMetrics phase = phases.get(i);
+                writer.write(i == 0 ? "\n    {\n" : ",\n    {\n");
+                writeProperty(writer, "      ", "name", quote(phase.getName()), true);
+                writeProperty(writer, "      ", "durationMillis", format(phase.getDurationMillis()), true);
+                writeProperty(writer, "      ", "bytes", String.valueOf(phase.getBytes()), true);
+                writeProperty(writer, "      ", "entries", String.valueOf(phase.getEntries()), true);
+                writeProperty(writer, "      ", "megabytesPerSecond", format(phase.getMegabytesPerSecond()), false);
+                writer.write("    }");
+            }
+            writer.write(phases.isEmpty() ? "]\n" : "\n  ]\n");
+            writer.write("}\n");
+        }
+        logger.info("metrics have been written to:" + reportFileName);
+    }
+
+    /**
+     * @return name of the metrics file next to the given report, e.g. <code>target/report-metrics.json</code> for
+     *         <code>target/report.xml</code>
+     */
+    public static String getMetricsFileName(String reportFileName)
+    {
+        return FilenameUtils.removeExtension(reportFileName) + METRICS_SUFFIX;
+    }
+
+    private static void writeProperty(Writer writer, String indent, String name, String value, boolean more) throws Exception
+    {
+        writer.write(indent);
+        writer.write(quote(name));
+        writer.write(": ");
+        writer.write(value);
+        writer.write(more ? ",\n" : "\n");
+    }
+
+    private static String format(double value)
+    {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static String quote(String value)
+    {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (char character : value.toCharArray())
+        {
+            if (character == '"' || character == '\\')
+            {
+                quoted.append('\\').append(character);
+            }
+            else if (character < 0x20)
+            {
+                quoted.append(String.format(Locale.ROOT, "\\u%04x", (int) character));
+            }
+            else
+            {
+                quoted.append(character);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+}
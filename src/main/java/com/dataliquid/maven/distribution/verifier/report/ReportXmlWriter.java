@@ -0,0 +1,161 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.report;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Pretty printing XML writer emitting elements incrementally, so the memory needed for a report does not depend on the
+ * number of its entries.
+ */
+public class ReportXmlWriter implements AutoCloseable
+{
+    private static final String LINE_SEPARATOR = "\n";
+
+    private static final String INDENT = "  ";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Writer writer;
+
+    private final XMLStreamWriter xmlWriter;
+
+    /**
+     * Per open element whether child elements have been written, which moves its end tag to a line of its own.
+     */
+    private final Deque<Boolean> openElements = new ArrayDeque<>();
+
+    public ReportXmlWriter(Writer writer) throws XMLStreamException
+    {
+        this.writer = writer;
+        this.xmlWriter = XMLOutputFactory.newFactory().createXMLStreamWriter(writer);
+        xmlWriter.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+    }
+
+    /**
+     * Open a streaming writer for the given report file, closing the writer completes the document.
+     */
+    public static ReportXmlWriter open(String reportFileName) throws Exception
+    {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(Paths.get(reportFileName)), StandardCharsets.UTF_8),
+                BUFFER_SIZE);
+        try
+        {
+            return new ReportXmlWriter(writer);
+        }
+        catch (Exception e)
+        {
+            writer.close();
+            throw e;
+        }
+    }
+
+    public void startElement(String name) throws XMLStreamException
+    {
+        indent();
+        xmlWriter.writeStartElement(name);
+        openElements.push(Boolean.FALSE);
+    }
+
+    /**
+     * Write an element without content, its attributes follow directly.
+     */
+    public void emptyElement(String name) throws XMLStreamException
+    {
+        indent();
+        xmlWriter.writeEmptyElement(name);
+    }
+
+    /**
+     * Write the attribute of the current element, a <code>null</code> value is omitted.
+     */
+    public void attribute(String name, String value) throws XMLStreamException
+    {
+        if (value != null)
+        {
+            xmlWriter.writeAttribute(name, value);
+        }
+    }
+
+    public void text(String text) throws XMLStreamException
+    {
+        if (text != null)
+        {
+            xmlWriter.writeCharacters(text);
+        }
+    }
+
+    public void endElement() throws XMLStreamException
+    {
+        if (openElements.pop())
+        {
+            xmlWriter.writeCharacters(LINE_SEPARATOR + indentation(openElements.size()));
+        }
+        xmlWriter.writeEndElement();
+    }
+
+    @Override
+    public void close() throws XMLStreamException, IOException
+    {
+        try
+        {
+            while (!openElements.isEmpty())
+            {
+                endElement();
+            }
+            xmlWriter.writeEndDocument();
+            xmlWriter.writeCharacters(LINE_SEPARATOR);
+            xmlWriter.close();
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+
+    private void indent() throws XMLStreamException
+    {
+        if (!openElements.isEmpty())
+        {
+            openElements.pop();
+            openElements.push(Boolean.TRUE);
+        }
+        xmlWriter.writeCharacters(LINE_SEPARATOR + indentation(openElements.size()));
+    }
+
+    private static String indentation(int depth)
+    {
+        StringBuilder indentation = new StringBuilder(depth * INDENT.length());
+        for (int i = 0; i < depth; i++)
+        {
+            indentation.append(INDENT);
+        }
+        return indentation.toString();
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.report;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.dataliquid.maven.distribution.verifier.domain.ResultEntry;
+import com.dataliquid.maven.distribution.verifier.domain.Verification;
+import com.dataliquid.maven.distribution.verifier.domain.VerificationStatus;
+import com.dataliquid.maven.distribution.verifier.domain.VerifierResult;
+
+/**
+ * Combined report of several verified distribution archive files, one element per archive referencing its own report.
+ */
+public class SummaryReport
+{
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    public void generateReport(List<Verification> verifications, List<VerifierResult> verifierResults, String reportFileName) throws Exception
+    {
+        logger.info("start generating summary report");
+
+        try (ReportXmlWriter writer = ReportXmlWriter.open(reportFileName))
+        {
+            writer.startElement("summary");
+            for (int i = 0; i < verifications.size(); i++)
+            {
+                Verification verification = verifications.get(i);
+                VerifierResult verifierResult = verifierResults.get(i);
+                writer.emptyElement("distribution");
+                writer.attribute("archive", verification.getDistributionArchiveFile().getPath());
+                writer.attribute("whitelist", verification.getWhitelist().getPath());
+                writer.attribute("report", verification.getReportFile());
+                writer.attribute("status", (verifierResult.isValid() ? VerificationStatus.SUCCESS : VerificationStatus.FAILED).name());
+                writer.attribute("entries", String.valueOf(countEntries(verifierResult)));
+                writer.attribute("failures", String.valueOf(countFailures(verifierResult)));
+                writer.attribute("truncated", verifierResult.isTruncated() ? Boolean.TRUE.toString() : null);
+            }
+            writer.endElement();
+        }
+        logger.info("summary report has been written to:" + reportFileName);
+    }
+
+    /**
+     * Count the reported files, the result of a truncated verification is not a file.
+     */
+    private long countEntries(VerifierResult verifierResult)
+    {
+        long entries = 0;
+        for (ResultEntry resultEntry : verifierResult.getResultEntries())
+        {
+            if (!VerificationStatus.TRUNCATED.name().equals(resultEntry.getStatus()))
+            {
+                entries++;
+            }
+        }
+        return entries;
+    }
+
+    private long countFailures(VerifierResult verifierResult)
+    {
+        long failures = 0;
+        for (ResultEntry resultEntry : verifierResult.getResultEntries())
+        {
+            if (VerificationStatus.FAILED.name().equals(resultEntry.getStatus()))
+            {
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+}
@@ -16,14 +16,15 @@
 package com.dataliquid.maven.distribution.verifier.report;
 
 import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
 
-import org.dom4j.Document;
-import org.dom4j.DocumentHelper;
-import org.dom4j.Element;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.dataliquid.maven.distribution.verifier.domain.DigestAlgorithm;
 import com.dataliquid.maven.distribution.verifier.domain.ResultEntry;
+import com.dataliquid.maven.distribution.verifier.domain.VerificationStatus;
 
 public class XmlReport extends AbstractXmlReport
 {
@@ -35,21 +36,46 @@ public class XmlReport extends AbstractXmlReport
     {
         logger.info("start generating xml report");
 
-        Document document = DocumentHelper.createDocument();
-        Element report = document.addElement("report");
-        for (ResultEntry resultEntry : results)
+        try (ReportXmlWriter writer = openWriter(reportFileName))
         {
-            logger.debug("start processing resultEntry:" + resultEntry.toString());
-            Element reportEntry = report.addElement("entry");
-            reportEntry.addAttribute("path", resultEntry.getPath());
-            reportEntry.addAttribute("md5", resultEntry.getMd5());
-            Element result = reportEntry.addElement("result");
-            result.addAttribute("status", resultEntry.getStatus());
-            result.addAttribute("message", resultEntry.getMessage());
+            writer.startElement("report");
+            for (ResultEntry resultEntry : results)
+            {
+                logger.debug("start processing resultEntry:" + resultEntry.toString());
+                if (VerificationStatus.TRUNCATED.name().equals(resultEntry.getStatus()))
+                {
+                    writer.emptyElement("truncated");
+                    writer.attribute("message", resultEntry.getMessage());
+                    continue;
+                }
+                writer.startElement("entry");
+                writer.attribute("path", resultEntry.getPath());
+                for (Map.Entry<DigestAlgorithm, String> digest : resultEntry.getDigests().entrySet())
+                {
+                    writer.attribute(digest.getKey().getAttributeName(), digest.getValue());
+                }
+                writer.emptyElement("result");
+                writer.attribute("status", resultEntry.getStatus());
+                writer.attribute("message", resultEntry.getMessage());
+                if (!resultEntry.getVerifiedDigests().isEmpty())
+                {
+                    writer.attribute("verified", toAttributeNames(resultEntry.getVerifiedDigests()));
+                }
+                writer.endElement();
+            }
+            writer.endElement();
         }
-
-        writeFile(reportFileName, document);
         logger.info("report has been written to:" + reportFileName);
     }
 
+    private String toAttributeNames(List<DigestAlgorithm> algorithms)
+    {
+        StringJoiner attributeNames = new StringJoiner(" ");
+        for (DigestAlgorithm algorithm : algorithms)
+        {
+            attributeNames.add(algorithm.getAttributeName());
+        }
+        return attributeNames.toString();
+    }
+
 }
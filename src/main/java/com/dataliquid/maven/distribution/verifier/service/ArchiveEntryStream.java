@@ -0,0 +1,37 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Files of an archive read in archive order, the content of the current file is read from {@link #getInputStream()}.
+ */
+interface ArchiveEntryStream
+{
+    /**
+     * Move to the next file of the archive, directories and links are skipped.
+     * 
+     * @return normalized path of the file or <code>null</code> at the end of the archive
+     */
+    String nextFile() throws IOException;
+
+    /**
+     * Content of the current file, the stream ends with the file and must not be closed.
+     */
+    InputStream getInputStream();
+}
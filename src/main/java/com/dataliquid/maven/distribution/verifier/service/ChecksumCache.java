@@ -0,0 +1,271 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.dataliquid.maven.distribution.verifier.domain.DigestAlgorithm;
+
+/**
+ * Persistent cache of calculated digests keyed by entry path, uncompressed size, CRC-32 checksum and algorithm. Entries
+ * whose size or CRC-32 checksum changed miss the cache, the least recently used digests are evicted once the cache
+ * exceeds its maximum number of entries.
+ */
+public class ChecksumCache implements Closeable
+{
+    public static final int DEFAULT_MAX_ENTRIES = 500_000;
+
+    private static final int MAGIC = 0x44564343;
+
+    private static final int VERSION = 1;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final File cacheFile;
+
+    private final Map<Key, byte[]> digests;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Open the cache file, loading the digests of previous runs.
+     */
+    public static ChecksumCache open(File cacheFile, int maxEntries)
+    {
+        ChecksumCache checksumCache = new ChecksumCache(cacheFile, maxEntries);
+        checksumCache.load();
+        return checksumCache;
+    }
+
+    public ChecksumCache(File cacheFile, int maxEntries)
+    {
+        this.cacheFile = cacheFile;
+        this.digests = new LinkedHashMap<Key, byte[]>(16, 0.75f, true)
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, byte[]> eldest)
+            {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Read the digests of previous runs, a missing or unreadable cache file starts with an empty cache.
+     */
+    public void load()
+    {
+        if (!cacheFile.isFile())
+        {
+            return;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile.toPath()))))
+        {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION)
+            {
+                logger.info("Checksum cache " + cacheFile + " has an outdated format and is discarded");
+                return;
+            }
+            DigestAlgorithm[] algorithms = DigestAlgorithm.values();
+            int entryCount = input.readInt();
+            synchronized (digests)
+            {
+                // entries are stored from least to most recently used, so the access order survives the reload
+                for (int i = 0; i < entryCount; i++)
+                {
+                    String path = input.readUTF();
+                    long size = input.readLong();
+                    long crc32 = input.readLong();
+                    DigestAlgorithm algorithm = algorithms[input.readByte()];
+                    byte[] digest = new byte[input.readUnsignedByte()];
+                    input.readFully(digest);
+                    digests.put(new Key(path, size, crc32, algorithm), digest);
+                }
+            }
+        }
+        catch (IOException | RuntimeException e)
+        {
+            logger.warn("Checksum cache " + cacheFile + " is not readable and is discarded: " + e.getMessage());
+            synchronized (digests)
+            {
+                digests.clear();
+            }
+        }
+    }
+
+    /**
+     * Write the cached digests, replacing the cache file atomically.
+     */
+    public void save() throws IOException
+    {
+        FileUtils.forceMkdir(cacheFile.getAbsoluteFile().getParentFile());
+        File temporaryFile = File.createTempFile(cacheFile.getName(), ".tmp", cacheFile.getAbsoluteFile().getParentFile());
+        try
+        {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile.toPath()))))
+            {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                synchronized (digests)
+                {
+                    output.writeInt(digests.size());
+                    for (Map.Entry<Key, byte[]> entry : digests.entrySet())
+                    {
+                        Key key = entry.getKey();
+                        output.writeUTF(key.path);
+                        output.writeLong(key.size);
+                        output.writeLong(key.crc32);
+                        output.writeByte(key.algorithm.ordinal());
+                        output.writeByte(entry.getValue().length);
+                        output.write(entry.getValue());
+                    }
+                }
+            }
+            Files.move(temporaryFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally
+        {
+            Files.deleteIfExists(temporaryFile.toPath());
+        }
+    }
+
+    /**
+     * Save the cache and log the hit and miss summary, a failed save only loses the digests of this run.
+     */
+    @Override
+    public void close()
+    {
+        logger.info(getSummary());
+        try
+        {
+            save();
+        }
+        catch (IOException e)
+        {
+            logger.warn("Checksum cache " + cacheFile + " could not be written: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return cached digest or <code>null</code> on a cache miss
+     */
+    public byte[] get(String path, long size, long crc32, DigestAlgorithm algorithm)
+    {
+        byte[] digest;
+        synchronized (digests)
+        {
+            digest = digests.get(new Key(path, size, crc32, algorithm));
+        }
+        (digest != null ? hits : misses).incrementAndGet();
+        return digest;
+    }
+
+    public void put(String path, long size, long crc32, DigestAlgorithm algorithm, byte[] digest)
+    {
+        synchronized (digests)
+        {
+            digests.put(new Key(path, size, crc32, algorithm), digest);
+        }
+    }
+
+    public long getHits()
+    {
+        return hits.get();
+    }
+
+    public long getMisses()
+    {
+        return misses.get();
+    }
+
+    public int size()
+    {
+        synchronized (digests)
+        {
+            return digests.size();
+        }
+    }
+
+    /**
+     * @return hit and miss summary of the current run
+     */
+    public String getSummary()
+    {
+        long lookups = getHits() + getMisses();
+        long hitRate = lookups > 0 ? getHits() * 100 / lookups : 0;
+        return "Checksum cache - Hits: " + getHits() + ", Misses: " + getMisses() + " (" + hitRate + "% hit rate), Entries: " + size();
+    }
+
+    /**
+     * Identity of a calculated digest.
+     */
+    private static final class Key
+    {
+        private final String path;
+
+        private final long size;
+
+        private final long crc32;
+
+        private final DigestAlgorithm algorithm;
+
+        Key(String path, long size, long crc32, DigestAlgorithm algorithm)
+        {
+            this.path = path;
+            this.size = size;
+            this.crc32 = crc32;
+            this.algorithm = algorithm;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(path, size, crc32, algorithm);
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            Key other = (Key) obj;
+            return size == other.size && crc32 == other.crc32 && algorithm == other.algorithm && path.equals(other.path);
+        }
+    }
+
+}
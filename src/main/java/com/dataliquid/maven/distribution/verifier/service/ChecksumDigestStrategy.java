@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.service;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+import com.dataliquid.maven.distribution.verifier.domain.DigestAlgorithm;
+
+/**
+ * Non-cryptographic 32 bit checksums based on {@link Checksum}.
+ */
+public class ChecksumDigestStrategy implements DigestStrategy
+{
+    private static final int CHECKSUM_LENGTH = 4;
+
+    private final DigestAlgorithm algorithm;
+
+    private final Checksum checksum;
+
+    public ChecksumDigestStrategy(DigestAlgorithm algorithm)
+    {
+        this.algorithm = algorithm;
+        this.checksum = algorithm == DigestAlgorithm.CRC32C ? new CRC32C() : new CRC32();
+    }
+
+    @Override
+    public DigestAlgorithm getAlgorithm()
+    {
+        return algorithm;
+    }
+
+    @Override
+    public void update(ByteBuffer buffer)
+    {
+        checksum.update(buffer);
+    }
+
+    @Override
+    public byte[] digest()
+    {
+        byte[] value = toBytes(checksum.getValue());
+        checksum.reset();
+        return value;
+    }
+
+    @Override
+    public void reset()
+    {
+        checksum.reset();
+    }
+
+    /**
+     * @return checksum as four bytes in big endian order, matching its eight digit hex representation
+     */
+    public static byte[] toBytes(long checksum)
+    {
+        byte[] bytes = new byte[CHECKSUM_LENGTH];
+        for (int i = CHECKSUM_LENGTH - 1; i >= 0; i--)
+        {
+            bytes[i] = (byte) checksum;
+            checksum >>>= 8;
+        }
+        return bytes;
+    }
+
+}
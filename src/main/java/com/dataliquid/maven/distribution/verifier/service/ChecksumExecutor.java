@@ -0,0 +1,126 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded thread pool for checksum calculations. With a single thread the tasks are executed on the calling thread
+ * once their result is awaited, so cancelled tasks are never executed.
+ */
+class ChecksumExecutor implements AutoCloseable
+{
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+    private final ExecutorService executorService;
+
+    ChecksumExecutor(int threads)
+    {
+        this.executorService = threads > 1 ? Executors.newFixedThreadPool(threads, new ChecksumThreadFactory()) : null;
+    }
+
+    <T> Future<T> submit(Callable<T> task)
+    {
+        if (executorService != null)
+        {
+            return executorService.submit(task);
+        }
+        return new DeferredTask<>(task);
+    }
+
+    /**
+     * Wait for the result of the given task and rethrow the original cause if it failed.
+     */
+    static <T> T await(Future<T> future) throws Exception
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof Exception)
+            {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    static int defaultThreads()
+    {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    @Override
+    public void close()
+    {
+        if (executorService != null)
+        {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Task executed on the thread which waits for its result, running a completed or cancelled task has no effect.
+     */
+    private static class DeferredTask<T> extends FutureTask<T>
+    {
+        DeferredTask(Callable<T> task)
+        {
+            super(task);
+        }
+
+        @Override
+        public T get() throws InterruptedException, ExecutionException
+        {
+            run();
+            return super.get();
+        }
+
+        @Override
+        public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException
+        {
+            run();
+            return super.get(timeout, unit);
+        }
+    }
+
+    private static class ChecksumThreadFactory implements ThreadFactory
+    {
+        private final int poolNumber = POOL_NUMBER.incrementAndGet();
+
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+            Thread thread = new Thread(runnable, "distribution-verifier-" + poolNumber + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
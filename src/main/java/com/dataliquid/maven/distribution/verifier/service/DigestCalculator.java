@@ -0,0 +1,326 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.codec.binary.Hex;
+
+import com.dataliquid.maven.distribution.verifier.domain.DigestAlgorithm;
+import com.dataliquid.maven.distribution.verifier.domain.PhaseMetrics;
+import com.dataliquid.maven.distribution.verifier.event.EntryEvent;
+
+/**
+ * Calculates all requested digests of a distribution file in a single read pass. Files mapped by the content are
+ * hashed directly from memory, all other files are read into a buffer. Digest instances and the read buffer are kept
+ * per thread and reused for every file, the digests are returned as raw bytes and only hex encoded for reporting.
+ */
+public class DigestCalculator
+{
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final boolean readingContent;
+
+    private final ThreadLocal<Workspace> workspaces = ThreadLocal.withInitial(Workspace::new);
+
+    private ChecksumCache checksumCache;
+
+    private PhaseMetrics metrics;
+
+    /**
+     * @param readingContent
+     *            <code>false</code> restricts the calculation to checksums stored by the content (central directory),
+     *            no file is read
+     */
+    public DigestCalculator(boolean readingContent)
+    {
+        this.readingContent = readingContent;
+    }
+
+    /**
+     * Calculate the digests of the given file. A CRC-32 checksum stored by the content is used without reading the
+     * file, digests found in the checksum cache are reused and all other algorithms share one read pass.
+     * 
+     * @return raw digests by algorithm, algorithms which can not be calculated are missing
+     */
+    public Map<DigestAlgorithm, byte[]> calculate(DistributionContent content, String path, Set<DigestAlgorithm> algorithms)
+            throws IOException, NoSuchAlgorithmException
+    {
+        countEntry();
+        Map<DigestAlgorithm, byte[]> digests = new EnumMap<>(DigestAlgorithm.class);
+        long storedCrc32 = algorithms.contains(DigestAlgorithm.CRC32) || checksumCache != null ? content.getStoredCrc32(path) : -1;
+        if (storedCrc32 != -1 && algorithms.contains(DigestAlgorithm.CRC32))
+        {
+            digests.put(DigestAlgorithm.CRC32, ChecksumDigestStrategy.toBytes(storedCrc32));
+        }
+
+        // the cache identifies a file by its stored CRC-32 checksum, files without one are always read
+        long size = -1;
+        if (checksumCache != null && storedCrc32 != -1 && readingContent)
+        {
+            size = content.getSize(path);
+            for (DigestAlgorithm algorithm : algorithms)
+            {
+                if (!digests.containsKey(algorithm))
+                {
+                    byte[] cachedDigest = checksumCache.get(path, size, storedCrc32, algorithm);
+                    if (cachedDigest != null)
+                    {
+                        digests.put(algorithm, cachedDigest);
+                    }
+                }
+            }
+        }
+
+        if (readingContent && digests.size() < algorithms.size())
+        {
+            Workspace workspace = workspaces.get();
+            List<DigestStrategy> strategies = workspace.select(algorithms, digests.keySet());
+            List<ByteBuffer> regions = content.map(path);
+            long bytes;
+            if (regions != null)
+            {
+                bytes = workspace.update(regions, strategies);
+            }
+            else
+            {
+                try (ReadableByteChannel channel = content.openChannel(path))
+                {
+                    bytes = workspace.read(channel, strategies);
+                }
+            }
+            countBytes(bytes);
+            for (DigestStrategy strategy : strategies)
+            {
+                byte[] digest = strategy.digest();
+                digests.put(strategy.getAlgorithm(), digest);
+                if (size != -1)
+                {
+                    checksumCache.put(path, size, storedCrc32, strategy.getAlgorithm(), digest);
+                }
+            }
+        }
+        return digests;
+    }
+
+    /**
+     * Calculate the digests of the given file timed by its entry event, the size and compression method of the file are
+     * only read while the event is recorded.
+     * 
+     * @param event
+     *            event of the file or <code>null</code> if the event is not recorded
+     */
+    public Map<DigestAlgorithm, byte[]> calculate(DistributionContent content, String path, Set<DigestAlgorithm> algorithms, EntryEvent event)
+            throws IOException, NoSuchAlgorithmException
+    {
+        if (event == null)
+        {
+            return calculate(content, path, algorithms);
+        }
+        event.begin(content.getSize(path), content.getCompressionMethod(path));
+        try
+        {
+            return calculate(content, path, algorithms);
+        }
+        finally
+        {
+            event.end();
+        }
+    }
+
+    /**
+     * Calculate the digests of the remaining bytes of the given stream in a single read pass, the stream is not
+     * closed.
+     */
+    public Map<DigestAlgorithm, byte[]> calculate(InputStream inputStream, Set<DigestAlgorithm> algorithms) throws IOException, NoSuchAlgorithmException
+    {
+        countEntry();
+        Map<DigestAlgorithm, byte[]> digests = new EnumMap<>(DigestAlgorithm.class);
+        if (!algorithms.isEmpty())
+        {
+            Workspace workspace = workspaces.get();
+            List<DigestStrategy> strategies = workspace.select(algorithms, Collections.emptySet());
+            countBytes(workspace.read(inputStream, strategies));
+            for (DigestStrategy strategy : strategies)
+            {
+                digests.put(strategy.getAlgorithm(), strategy.digest());
+            }
+        }
+        return digests;
+    }
+
+    private void countEntry()
+    {
+        if (metrics != null)
+        {
+            metrics.addEntries(1);
+        }
+    }
+
+    private void countBytes(long bytes)
+    {
+        if (metrics != null)
+        {
+            metrics.addBytes(bytes);
+        }
+    }
+
+    public PhaseMetrics getMetrics()
+    {
+        return metrics;
+    }
+
+    /**
+     * Count the files processed and the bytes read by this calculator.
+     */
+    public void setMetrics(PhaseMetrics metrics)
+    {
+        this.metrics = metrics;
+    }
+
+    public ChecksumCache getChecksumCache()
+    {
+        return checksumCache;
+    }
+
+    /**
+     * Reuse digests of files calculated by previous runs, only files with a stored CRC-32 checksum are cached.
+     */
+    public void setChecksumCache(ChecksumCache checksumCache)
+    {
+        this.checksumCache = checksumCache;
+    }
+
+    /**
+     * @return lower case hex representation of the given digests
+     */
+    public static Map<DigestAlgorithm, String> encode(Map<DigestAlgorithm, byte[]> digests)
+    {
+        Map<DigestAlgorithm, String> encodedDigests = new EnumMap<>(DigestAlgorithm.class);
+        for (Map.Entry<DigestAlgorithm, byte[]> digest : digests.entrySet())
+        {
+            encodedDigests.put(digest.getKey(), Hex.encodeHexString(digest.getValue()));
+        }
+        return encodedDigests;
+    }
+
+    public static DigestStrategy createStrategy(DigestAlgorithm algorithm) throws NoSuchAlgorithmException
+    {
+        switch (algorithm)
+        {
+            case CRC32:
+            case CRC32C:
+                return new ChecksumDigestStrategy(algorithm);
+            default:
+                return new MessageDigestStrategy(algorithm);
+        }
+    }
+
+    /**
+     * Digest strategies and read buffer of a single thread.
+     */
+    private static class Workspace
+    {
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        private final ByteBuffer streamBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        private final Map<DigestAlgorithm, DigestStrategy> strategies = new EnumMap<>(DigestAlgorithm.class);
+
+        private final List<DigestStrategy> selectedStrategies = new ArrayList<>(DigestAlgorithm.values().length);
+
+        List<DigestStrategy> select(Set<DigestAlgorithm> algorithms, Set<DigestAlgorithm> excludedAlgorithms) throws NoSuchAlgorithmException
+        {
+            selectedStrategies.clear();
+            for (DigestAlgorithm algorithm : algorithms)
+            {
+                if (!excludedAlgorithms.contains(algorithm))
+                {
+                    DigestStrategy strategy = strategies.get(algorithm);
+                    if (strategy == null)
+                    {
+                        strategy = createStrategy(algorithm);
+                        strategies.put(algorithm, strategy);
+                    }
+                    strategy.reset();
+                    selectedStrategies.add(strategy);
+                }
+            }
+            return selectedStrategies;
+        }
+
+        long update(List<ByteBuffer> regions, List<DigestStrategy> selectedStrategies)
+        {
+            long bytes = 0;
+            for (ByteBuffer region : regions)
+            {
+                bytes += region.limit();
+                for (DigestStrategy strategy : selectedStrategies)
+                {
+                    region.rewind();
+                    strategy.update(region);
+                }
+            }
+            return bytes;
+        }
+
+        long read(InputStream inputStream, List<DigestStrategy> selectedStrategies) throws IOException
+        {
+            byte[] bytes = streamBuffer.array();
+            long total = 0;
+            int read;
+            while ((read = inputStream.read(bytes)) != -1)
+            {
+                total += read;
+                for (DigestStrategy strategy : selectedStrategies)
+                {
+                    streamBuffer.clear().limit(read);
+                    strategy.update(streamBuffer);
+                }
+            }
+            return total;
+        }
+
+        long read(ReadableByteChannel channel, List<DigestStrategy> selectedStrategies) throws IOException
+        {
+            long total = 0;
+            buffer.clear();
+            while (channel.read(buffer) != -1)
+            {
+                buffer.flip();
+                total += buffer.remaining();
+                for (DigestStrategy strategy : selectedStrategies)
+                {
+                    buffer.rewind();
+                    strategy.update(buffer);
+                }
+                buffer.clear();
+            }
+            return total;
+        }
+    }
+
+}
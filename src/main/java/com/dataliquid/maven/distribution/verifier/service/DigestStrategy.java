@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.service;
+
+import java.nio.ByteBuffer;
+
+import com.dataliquid.maven.distribution.verifier.domain.DigestAlgorithm;
+
+/**
+ * Strategy calculating the digest of a single algorithm, fed incrementally with the content of a file. Instances are
+ * reused for many files but never shared between threads.
+ */
+public interface DigestStrategy
+{
+    DigestAlgorithm getAlgorithm();
+
+    /**
+     * Update the digest with the remaining bytes of the buffer, the position of the buffer is moved to its limit.
+     */
+    void update(ByteBuffer buffer);
+
+    /**
+     * Complete the calculation and reset the strategy for the next file.
+     * 
+     * @return raw bytes of the digest
+     */
+    byte[] digest();
+
+    /**
+     * Discard a partial calculation, e.g. after a read failure.
+     */
+    void reset();
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.dataliquid.maven.distribution.verifier.domain.DigestAlgorithm;
+
+/**
+ * Input stream updating the digests of all bytes passing through it, so a nested archive is hashed while its entries
+ * are read.
+ */
+class DigestingInputStream extends FilterInputStream
+{
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final List<DigestStrategy> strategies;
+
+    DigestingInputStream(InputStream inputStream, Set<DigestAlgorithm> algorithms) throws NoSuchAlgorithmException
+    {
+        super(inputStream);
+        this.strategies = new ArrayList<>(algorithms.size());
+        for (DigestAlgorithm algorithm : algorithms)
+        {
+            strategies.add(DigestCalculator.createStrategy(algorithm));
+        }
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        int value = in.read();
+        if (value != -1)
+        {
+            update(new byte[] { (byte) value }, 0, 1);
+        }
+        return value;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException
+    {
+        int read = in.read(bytes, offset, length);
+        if (read > 0)
+        {
+            update(bytes, offset, read);
+        }
+        return read;
+    }
+
+    /**
+     * Skipped bytes are read as well, they are part of the digest.
+     */
+    @Override
+    public long skip(long length) throws IOException
+    {
+        byte[] bytes = new byte[(int) Math.min(length, BUFFER_SIZE)];
+        long skipped = 0;
+        while (skipped < length)
+        {
+            int read = read(bytes, 0, (int) Math.min(bytes.length, length - skipped));
+            if (read == -1)
+            {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported()
+    {
+        return false;
+    }
+
+    /**
+     * Read the remaining bytes and complete the digests.
+     */
+    Map<DigestAlgorithm, byte[]> digest() throws IOException
+    {
+        byte[] bytes = new byte[BUFFER_SIZE];
+        while (read(bytes, 0, bytes.length) != -1)
+        {
+            // update the digests with the remaining bytes
+        }
+        Map<DigestAlgorithm, byte[]> digests = new EnumMap<>(DigestAlgorithm.class);
+        for (DigestStrategy strategy : strategies)
+        {
+            digests.put(strategy.getAlgorithm(), strategy.digest());
+        }
+        return digests;
+    }
+
+    private void update(byte[] bytes, int offset, int length)
+    {
+        for (DigestStrategy strategy : strategies)
+        {
+            strategy.update(ByteBuffer.wrap(bytes, offset, length));
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.service;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Distribution content of an unpacked distribution archive.
+ */
+public class DirectoryContent extends FileSystemContent
+{
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final File directory;
+
+    private final boolean temporary;
+
+    public DirectoryContent(File directory)
+    {
+        this(directory, false);
+    }
+
+    /**
+     * @param temporary
+     *            delete the directory when the content is closed
+     */
+    public DirectoryContent(File directory, boolean temporary)
+    {
+        super(directory.toPath());
+        this.directory = directory;
+        this.temporary = temporary;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (!temporary)
+        {
+            return;
+        }
+        try
+        {
+            FileUtils.deleteDirectory(directory);
+        }
+        catch (IOException e)
+        {
+            // files which are still memory mapped cannot be deleted on every platform, e.g. on Windows
+            logger.warn("Work directory " + directory + " could not be deleted, retrying on exit: " + e.getMessage());
+            FileUtils.forceDeleteOnExit(directory);
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.List;
+
+/**
+ * Read access to the files of a distribution. Paths are normalized with unix separators and a leading slash, e.g.
+ * <code>/lib/sample.jar</code>.
+ */
+public interface DistributionContent extends Closeable
+{
+    boolean exists(String path);
+
+    InputStream openStream(String path) throws IOException;
+
+    /**
+     * Open the file for bulk reads into a buffer, e.g. a {@link java.nio.channels.FileChannel} for files on disk.
+     */
+    ReadableByteChannel openChannel(String path) throws IOException;
+
+    /**
+     * Map the file into memory to hash it without copying its bytes.
+     * 
+     * @return read-only buffers covering the file in order or <code>null</code> if the file is not mapped, in which
+     *         case it is read through {@link #openChannel(String)}
+     */
+    List<ByteBuffer> map(String path) throws IOException;
+
+    List<String> listFiles() throws IOException;
+
+    /**
+     * @return uncompressed size of the file in bytes
+     */
+    long getSize(String path) throws IOException;
+
+    /**
+     * @return compression method of the file in the archive, e.g. <code>DEFLATED</code>, or <code>null</code> if the
+     *         file is not compressed by the content
+     */
+    String getCompressionMethod(String path) throws IOException;
+
+    /**
+     * CRC-32 checksum stored by the content itself, e.g. in the central directory of a zip archive.
+     * 
+     * @return unsigned checksum value or <code>-1</code> if the content does not store checksums
+     */
+    long getStoredCrc32(String path) throws IOException;
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.function.Predicate;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zeroturnaround.zip.ZipUtil;
+
+import com.dataliquid.maven.distribution.verifier.domain.ArchiveEngine;
+
+/**
+ * Opens the content of a distribution archive file according to the selected {@link ArchiveEngine}.
+ */
+public class DistributionContentFactory
+{
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    public DistributionContent open(File distributionArchiveFile, File workDirectory, ArchiveEngine archiveEngine) throws IOException
+    {
+        return open(distributionArchiveFile, workDirectory, archiveEngine, path -> false, directory -> false);
+    }
+
+    /**
+     * Open the content, files matching the given predicate are never unpacked. A directory, e.g. an assembly in
+     * directory format, is read in place with every engine.
+     * 
+     * @param excluded
+     *            tests the normalized path of a file, e.g. <code>/docs/index.html</code>
+     * @param excludedDirectories
+     *            tests the normalized path of a directory whose files are all excluded, e.g. <code>/docs</code>, the
+     *            directory is not walked by file system based contents
+     */
+    public DistributionContent open(File distributionArchiveFile, File workDirectory, ArchiveEngine archiveEngine, Predicate<String> excluded,
+            Predicate<String> excludedDirectories) throws IOException
+    {
+        if (distributionArchiveFile.isDirectory())
+        {
+            logger.info("Reading distribution directory " + distributionArchiveFile.getPath() + " in place");
+            DirectoryContent content = new DirectoryContent(distributionArchiveFile);
+            content.setExcludedDirectories(excludedDirectories);
+            return content;
+        }
+        if (archiveEngine == ArchiveEngine.STREAM || archiveEngine == ArchiveEngine.CENTRAL_DIRECTORY)
+        {
+            logger.info("Reading distribution archive file " + distributionArchiveFile.getPath() + " without unpacking");
+            return new ZipArchiveContent(distributionArchiveFile);
+        }
+        if (archiveEngine == ArchiveEngine.ZIPFS)
+        {
+            logger.info("Mounting distribution archive file " + distributionArchiveFile.getPath() + " as zip file system");
+            FileSystemContent content = FileSystemContent.mount(distributionArchiveFile);
+            content.setExcludedDirectories(excludedDirectories);
+            return content;
+        }
+        if (archiveEngine == ArchiveEngine.MAPPED)
+        {
+            logger.info("Mapping distribution archive file " + distributionArchiveFile.getPath() + " into memory");
+            return new MappedZipArchiveContent(distributionArchiveFile);
+        }
+
+        File destinationDirectory = determineDestinationDirectory(distributionArchiveFile, workDirectory);
+        DirectoryContent content = new DirectoryContent(destinationDirectory, true);
+        try
+        {
+            logger.info("Unzip distribution archive file " + distributionArchiveFile.getPath() + " to " + destinationDirectory);
+
+            ZipUtil.unpack(distributionArchiveFile, destinationDirectory, name -> excluded.test(ZipArchiveContent.normalize(name)) ? null : name);
+
+            logger.info("File unzipped successfully");
+
+            return content;
+        }
+        catch (RuntimeException e)
+        {
+            content.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Create a new work directory for every unpacked archive, so concurrent executions on archives with the same name
+     * never share a directory and no file of a previous run is left in it.
+     */
+    private File determineDestinationDirectory(File distributionArchiveFile, File workDirectory) throws IOException
+    {
+        File parentDirectory = workDirectory != null ? workDirectory : distributionArchiveFile.getAbsoluteFile().getParentFile();
+        FileUtils.forceMkdir(parentDirectory);
+        String prefix = distributionArchiveFile.getName().concat("-unzipped-");
+        return Files.createTempDirectory(parentDirectory.toPath(), prefix).toFile();
+    }
+
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+
+/**
+ * Distribution content read through a {@link FileSystem}, either a directory on disk or an archive mounted by the zip
+ * file system provider of the JDK. The files are listed in a single {@link Files#walkFileTree} pass, their sizes are
+ * taken from the attributes read by the walk without a separate stat per file.
+ */
+public class FileSystemContent implements DistributionContent
+{
+    private static final String SEPARATOR = "/";
+
+    private static final String ZIP_ATTRIBUTE_VIEW = "zip";
+
+    /**
+     * Files of at least this size are mapped into memory instead of being read into a buffer.
+     */
+    private static final long MAPPED_FILE_THRESHOLD = 4L * 1024 * 1024;
+
+    private final Path root;
+
+    private final FileSystem mountedFileSystem;
+
+    private final Map<String, Long> sizes = new ConcurrentHashMap<>();
+
+    private Predicate<String> excludedDirectories = directory -> false;
+
+    /**
+     * @param root
+     *            root directory of the distribution files
+     */
+    public FileSystemContent(Path root)
+    {
+        this(root, null);
+    }
+
+    private FileSystemContent(Path root, FileSystem mountedFileSystem)
+    {
+        this.root = root;
+        this.mountedFileSystem = mountedFileSystem;
+    }
+
+    /**
+     * Mount the given zip based archive with the zip file system provider, the file system is closed with the content.
+     */
+    public static FileSystemContent mount(File distributionArchiveFile) throws IOException
+    {
+        FileSystem fileSystem = FileSystems.newFileSystem(distributionArchiveFile.toPath(), (ClassLoader) null);
+        return new FileSystemContent(fileSystem.getPath(SEPARATOR), fileSystem);
+    }
+
+    @Override
+    public boolean exists(String path)
+    {
+        return Files.exists(resolve(path));
+    }
+
+    @Override
+    public InputStream openStream(String path) throws IOException
+    {
+        return Files.newInputStream(resolve(path));
+    }
+
+    @Override
+    public ReadableByteChannel openChannel(String path) throws IOException
+    {
+        return Files.newByteChannel(resolve(path), StandardOpenOption.READ);
+    }
+
+    @Override
+    public List<ByteBuffer> map(String path) throws IOException
+    {
+        if (mountedFileSystem != null || getSize(path) < MAPPED_FILE_THRESHOLD)
+        {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(resolve(path), StandardOpenOption.READ))
+        {
+            return MappedRegions.map(channel, 0, channel.size());
+        }
+    }
+
+    @Override
+    public List<String> listFiles() throws IOException
+    {
+        List<String> files = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>()
+        {
+            @Override
+            public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes)
+            {
+                if (!directory.equals(root) && excludedDirectories.test(toPath(directory)))
+                {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes)
+            {
+                if (attributes.isRegularFile())
+                {
+                    String path = toPath(file);
+                    sizes.put(path, attributes.size());
+                    files.add(path);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return files;
+    }
+
+    /**
+     * Skip directories matching the given predicate while listing the files, none of their files is visited.
+     * 
+     * @param excludedDirectories
+     *            tests the normalized path of a directory, e.g. <code>/docs</code>
+     */
+    public void setExcludedDirectories(Predicate<String> excludedDirectories)
+    {
+        this.excludedDirectories = excludedDirectories;
+    }
+
+    @Override
+    public long getSize(String path) throws IOException
+    {
+        Long size = sizes.get(path);
+        return size != null ? size : Files.size(resolve(path));
+    }
+
+    @Override
+    public String getCompressionMethod(String path) throws IOException
+    {
+        if (!isZipFileSystem())
+        {
+            return null;
+        }
+        int method = ((Number) Files.getAttribute(resolve(path), ZIP_ATTRIBUTE_VIEW + ":method")).intValue();
+        switch (method)
+        {
+            case ZipEntry.STORED:
+                return "STORED";
+            case ZipEntry.DEFLATED:
+                return "DEFLATED";
+            default:
+                return String.valueOf(method);
+        }
+    }
+
+    @Override
+    public long getStoredCrc32(String path) throws IOException
+    {
+        if (!isZipFileSystem())
+        {
+            return -1;
+        }
+        return ((Number) Files.getAttribute(resolve(path), ZIP_ATTRIBUTE_VIEW + ":crc")).longValue();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (mountedFileSystem != null)
+        {
+            mountedFileSystem.close();
+        }
+    }
+
+    private boolean isZipFileSystem()
+    {
+        return root.getFileSystem().supportedFileAttributeViews().contains(ZIP_ATTRIBUTE_VIEW);
+    }
+
+    private String toPath(Path file)
+    {
+        String relativePath = root.relativize(file).toString();
+        String separator = file.getFileSystem().getSeparator();
+        return SEPARATOR.concat(SEPARATOR.equals(separator) ? relativePath : relativePath.replace(separator, SEPARATOR));
+    }
+
+    private Path resolve(String path)
+    {
+        return root.resolve(path.startsWith(SEPARATOR) ? path.substring(1) : path);
+    }
+
+}
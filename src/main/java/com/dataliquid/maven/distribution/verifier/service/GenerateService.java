@@ -15,123 +15,444 @@
  */
 package com.dataliquid.maven.distribution.verifier.service;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.security.NoSuchAlgorithmException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Future;
 
-import org.apache.commons.codec.digest.DigestUtils;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.FilenameUtils;
-import org.dom4j.Document;
-import org.dom4j.DocumentHelper;
-import org.dom4j.Element;
-import org.dom4j.io.OutputFormat;
-import org.dom4j.io.XMLWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.w3c.dom.DOMException;
-import org.zeroturnaround.zip.ZipUtil;
+
+import com.dataliquid.maven.distribution.verifier.domain.ArchiveEngine;
+import com.dataliquid.maven.distribution.verifier.domain.DigestAlgorithm;
+import com.dataliquid.maven.distribution.verifier.domain.PhaseMetrics;
+import com.dataliquid.maven.distribution.verifier.domain.RunMetrics;
+import com.dataliquid.maven.distribution.verifier.domain.VerificationStatus;
+import com.dataliquid.maven.distribution.verifier.event.EntryEvent;
+import com.dataliquid.maven.distribution.verifier.service.NestedArchiveReader.NestedFile;
 
 public class GenerateService
 {
+    private static final String LINE_SEPARATOR = "\n";
+
+    private static final String INDENT = "  ";
+
+    private static final String GOAL = "generate";
+
+    /**
+     * Outcome of the entry events, every file is written to the whitelist.
+     */
+    private static final String GENERATED = "GENERATED";
+
+    /**
+     * Number of checksums calculated ahead of the writer per thread, bounds the memory independent of the archive size.
+     */
+    private static final int PENDING_ENTRIES_PER_THREAD = 16;
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
-    public void generate(File distributionArchiveFile, File workDirectory, File whitelist)
-    {
+    private ArchiveEngine archiveEngine = ArchiveEngine.UNPACK;
+
+    private int threads = ChecksumExecutor.defaultThreads();
 
+    private File checksumCacheFile;
+
+    private int checksumCacheMaxEntries = ChecksumCache.DEFAULT_MAX_ENTRIES;
+
+    private Set<DigestAlgorithm> digestAlgorithms = EnumSet.of(DigestAlgorithm.MD5);
+
+    private int nestedArchiveDepth;
+
+    /**
+     * Generate a whitelist with an entry for every file of the distribution archive.
+     * 
+     * @return timings of the unpack and hashing phases, hashing includes writing the whitelist
+     */
+    public RunMetrics generate(File distributionArchiveFile, File workDirectory, File whitelist)
+    {
+        RunMetrics metrics = new RunMetrics(GOAL, distributionArchiveFile);
         try
         {
-            File destinationDirectory = null;
-            if (workDirectory != null)
+            if (TarArchive.isTarArchive(distributionArchiveFile))
             {
-                String distributionWorkDirectory = distributionArchiveFile.getName().concat("-unzipped");
-                destinationDirectory = new File(workDirectory, distributionWorkDirectory);
+                logger.info("Generate whitelist template from tar archive in a single pass");
+
+                generateTarWhitelist(distributionArchiveFile, whitelist, metrics.phase(RunMetrics.HASHING));
             }
             else
             {
-                String name = distributionArchiveFile.getName().concat("-unzipped");
-                destinationDirectory = new File(distributionArchiveFile.getParentFile(), name);
-            }
-
-            logger.info("Unzip distribution archive file " + distributionArchiveFile.getPath() + " to " + destinationDirectory);
-
-            ZipUtil.unpack(distributionArchiveFile, destinationDirectory);
+                try (DistributionContent content = openContent(distributionArchiveFile, workDirectory, metrics.phase(RunMetrics.UNPACK));
+                        ChecksumCache checksumCache = openChecksumCache())
+                {
+                    logger.info("Generate whitelist template from distribution archive");
 
-            logger.info("File unzipped successfully");
-
-            logger.info("Generate whitelist template from distribution archive");
-
-            generateWhitelist(destinationDirectory, destinationDirectory, whitelist);
+                    generateWhitelist(content, whitelist, checksumCache, metrics);
+                }
+            }
 
             logger.info("Whitelist template has been generated. " + whitelist);
-
+            metrics.setStatus(VerificationStatus.SUCCESS.name());
         }
         catch (Exception e)
         {
             e.printStackTrace();
             logger.error("Error occurred : {}", e.getMessage(), e);
+            metrics.setStatus(VerificationStatus.FAILED.name());
         }
+        return metrics;
+    }
 
+    private DistributionContent openContent(File distributionArchiveFile, File workDirectory, PhaseMetrics unpackMetrics) throws IOException
+    {
+        unpackMetrics.start();
+        try
+        {
+            DistributionContent content = new DistributionContentFactory().open(distributionArchiveFile, workDirectory, archiveEngine);
+            if (archiveEngine == ArchiveEngine.UNPACK && distributionArchiveFile.isFile())
+            {
+                unpackMetrics.addBytes(distributionArchiveFile.length());
+            }
+            return content;
+        }
+        finally
+        {
+            unpackMetrics.stop();
+        }
     }
 
-    private boolean generateWhitelist(File directory, File originalDirectory, File whistlist) throws Exception
+    private void generateWhitelist(DistributionContent content, File whistlist, ChecksumCache checksumCache, RunMetrics metrics) throws Exception
     {
+        PhaseMetrics hashingMetrics = metrics.phase(RunMetrics.HASHING);
+        hashingMetrics.start();
+        try
+        {
+            List<String> paths = content.listFiles();
+            metrics.phase(RunMetrics.UNPACK).addEntries(paths.size());
+            Collections.sort(paths);
+            generateWhitelist(content, paths, whistlist, checksumCache, hashingMetrics);
+        }
+        finally
+        {
+            hashingMetrics.stop();
+        }
+    }
 
-        Document document = DocumentHelper.createDocument();
-        Element whistlistElement = document.addElement("whitelist");
+    private void generateWhitelist(DistributionContent content, List<String> paths, File whistlist, ChecksumCache checksumCache,
+            PhaseMetrics hashingMetrics) throws Exception
+    {
 
-        generateWhistliste(directory, originalDirectory, whistlistElement);
+        try (Writer writer = openWhitelist(whistlist); ChecksumExecutor checksumExecutor = new ChecksumExecutor(threads))
+        {
+            XMLStreamWriter xmlWriter = startWhitelist(writer);
 
-        FileUtils.forceMkdir(new File(whistlist.getParent()));
+            Set<DigestAlgorithm> algorithms = getGeneratedAlgorithms();
+            DigestCalculator digestCalculator = new DigestCalculator(isReadingContent());
+            digestCalculator.setChecksumCache(checksumCache);
+            digestCalculator.setMetrics(hashingMetrics);
+            NestedArchiveReader nestedArchiveReader = new NestedArchiveReader(digestCalculator, nestedArchiveDepth);
+            int maxPendingEntries = Math.max(1, threads) * PENDING_ENTRIES_PER_THREAD;
+            Deque<PendingEntry> pendingEntries = new ArrayDeque<>(maxPendingEntries);
+            for (String path : paths)
+            {
+                if (pendingEntries.size() >= maxPendingEntries)
+                {
+                    generateWhitelistEntry(pendingEntries.removeFirst(), xmlWriter);
+                }
+                EntryEvent event = EntryEvent.create(GOAL, path);
+                if (isReadingNestedArchive(path))
+                {
+                    Future<NestedFile> nestedArchive = checksumExecutor
+                            .submit(() -> scanNestedArchive(content, path, algorithms, nestedArchiveReader, event));
+                    pendingEntries.addLast(new PendingEntry(path, null, nestedArchive, event));
+                    continue;
+                }
+                Future<Map<DigestAlgorithm, byte[]>> digests = algorithms.isEmpty() ? null
+                        : checksumExecutor.submit(() -> digestCalculator.calculate(content, path, algorithms, event));
+                pendingEntries.addLast(new PendingEntry(path, digests, null, event));
+            }
+            while (!pendingEntries.isEmpty())
+            {
+                generateWhitelistEntry(pendingEntries.removeFirst(), xmlWriter);
+            }
+
+            endWhitelist(xmlWriter);
+        }
+    }
 
-        try (FileWriter writer = new FileWriter(whistlist))
+    /**
+     * Generate the whitelist of a tar archive, the files are hashed in a single sequential pass and written sorted by
+     * path.
+     */
+    private void generateTarWhitelist(File distributionArchiveFile, File whitelist, PhaseMetrics hashingMetrics) throws Exception
+    {
+        hashingMetrics.start();
+        try
         {
-            OutputFormat format = OutputFormat.createPrettyPrint();
-            XMLWriter xmlWriter = new XMLWriter(writer, format);
-            xmlWriter.write(document);
+            DigestCalculator digestCalculator = new DigestCalculator(true);
+            digestCalculator.setMetrics(hashingMetrics);
+            NestedArchiveReader nestedArchiveReader = new NestedArchiveReader(digestCalculator, nestedArchiveDepth);
+            Map<String, NestedFile> files;
+            try (TarArchive tarArchive = TarArchive.open(distributionArchiveFile))
+            {
+                files = nestedArchiveReader.scan(tarArchive, EnumSet.copyOf(digestAlgorithms), 0);
+            }
+
+            try (Writer writer = openWhitelist(whitelist))
+            {
+                XMLStreamWriter xmlWriter = startWhitelist(writer);
+                for (Map.Entry<String, NestedFile> file : new TreeMap<>(files).entrySet())
+                {
+                    generateWhitelistEntry(file.getKey(), file.getValue(), INDENT, xmlWriter);
+                }
+                endWhitelist(xmlWriter);
+            }
         }
-        catch (Exception e)
+        finally
         {
-            throw e;
+            hashingMetrics.stop();
         }
+    }
 
-        return false;
+    private Writer openWhitelist(File whitelist) throws Exception
+    {
+        FileUtils.forceMkdir(new File(whitelist.getParent()));
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(whitelist), StandardCharsets.UTF_8));
     }
 
-    public void generateWhistliste(File directory, File originalDirectory, Element whistlistElement) throws Exception
+    private XMLStreamWriter startWhitelist(Writer writer) throws Exception
     {
-        File[] directoryEntries = directory.listFiles();
-        for (File directoryEntry : directoryEntries)
-        {
+        XMLStreamWriter xmlWriter = XMLOutputFactory.newFactory().createXMLStreamWriter(writer);
+        xmlWriter.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+        xmlWriter.writeCharacters(LINE_SEPARATOR);
+        xmlWriter.writeStartElement("whitelist");
+        return xmlWriter;
+    }
 
-            if (directoryEntry.isDirectory())
+    private void endWhitelist(XMLStreamWriter xmlWriter) throws Exception
+    {
+        xmlWriter.writeCharacters(LINE_SEPARATOR);
+        xmlWriter.writeEndElement();
+        xmlWriter.writeEndDocument();
+        xmlWriter.close();
+    }
+
+    private void generateWhitelistEntry(PendingEntry pendingEntry, XMLStreamWriter xmlWriter) throws Exception
+    {
+        if (pendingEntry.nestedArchive != null)
+        {
+            generateWhitelistEntry(pendingEntry.path, ChecksumExecutor.await(pendingEntry.nestedArchive), INDENT, xmlWriter);
+        }
+        else
+        {
+            xmlWriter.writeCharacters(LINE_SEPARATOR + INDENT);
+            xmlWriter.writeEmptyElement("entry");
+            xmlWriter.writeAttribute("path", pendingEntry.path);
+            if (pendingEntry.digests != null)
             {
-                generateWhistliste(directoryEntry, originalDirectory, whistlistElement);
+                writeDigests(ChecksumExecutor.await(pendingEntry.digests), xmlWriter);
             }
-            else
+        }
+        if (pendingEntry.event != null)
+        {
+            pendingEntry.event.commit(GENERATED, null);
+        }
+    }
+
+    /**
+     * Write the entry of a file read from a nested archive, the files of a nested archive are written as child entries
+     * sorted by path.
+     */
+    private void generateWhitelistEntry(String path, NestedFile nestedFile, String indent, XMLStreamWriter xmlWriter) throws Exception
+    {
+        xmlWriter.writeCharacters(LINE_SEPARATOR + indent);
+        if (nestedFile.getFiles() == null || nestedFile.getFiles().isEmpty())
+        {
+            xmlWriter.writeEmptyElement("entry");
+            xmlWriter.writeAttribute("path", path);
+            writeDigests(nestedFile.getDigests(), xmlWriter);
+            return;
+        }
+        xmlWriter.writeStartElement("entry");
+        xmlWriter.writeAttribute("path", path);
+        writeDigests(nestedFile.getDigests(), xmlWriter);
+        for (Map.Entry<String, NestedFile> file : new TreeMap<>(nestedFile.getFiles()).entrySet())
+        {
+            generateWhitelistEntry(file.getKey(), file.getValue(), indent + INDENT, xmlWriter);
+        }
+        xmlWriter.writeCharacters(LINE_SEPARATOR + indent);
+        xmlWriter.writeEndElement();
+    }
+
+    private void writeDigests(Map<DigestAlgorithm, byte[]> digests, XMLStreamWriter xmlWriter) throws Exception
+    {
+        for (Map.Entry<DigestAlgorithm, byte[]> digest : digests.entrySet())
+        {
+            xmlWriter.writeAttribute(digest.getKey().getAttributeName(), Hex.encodeHexString(digest.getValue()));
+        }
+    }
+
+    private boolean isReadingNestedArchive(String path)
+    {
+        return nestedArchiveDepth > 0 && isReadingContent() && NestedArchiveReader.isArchive(path);
+    }
+
+    private NestedFile scanNestedArchive(DistributionContent content, String path, Set<DigestAlgorithm> algorithms,
+            NestedArchiveReader nestedArchiveReader, EntryEvent event) throws Exception
+    {
+        if (event != null)
+        {
+            event.begin(content.getSize(path), content.getCompressionMethod(path));
+        }
+        try (InputStream inputStream = content.openStream(path))
+        {
+            return nestedArchiveReader.scan(inputStream, algorithms, 1);
+        }
+        finally
+        {
+            if (event != null)
             {
-                generateWhitelistEntry(directoryEntry, originalDirectory, whistlistElement);
+                event.end();
             }
         }
+    }
+
+    private boolean isReadingContent()
+    {
+        return archiveEngine != ArchiveEngine.CENTRAL_DIRECTORY;
+    }
+
+    /**
+     * The central directory engine does not read any file and is restricted to the stored CRC-32 checksums.
+     */
+    private Set<DigestAlgorithm> getGeneratedAlgorithms()
+    {
+        if (isReadingContent())
+        {
+            return EnumSet.copyOf(digestAlgorithms);
+        }
+        if (!digestAlgorithms.contains(DigestAlgorithm.CRC32))
+        {
+            logger.info("Central directory engine generates CRC-32 checksums only, requested algorithms " + digestAlgorithms + " are ignored");
+        }
+        return EnumSet.of(DigestAlgorithm.CRC32);
+    }
+
+    public ArchiveEngine getArchiveEngine()
+    {
+        return archiveEngine;
+    }
 
+    public void setArchiveEngine(ArchiveEngine archiveEngine)
+    {
+        this.archiveEngine = archiveEngine;
+    }
+
+    public File getChecksumCacheFile()
+    {
+        return checksumCacheFile;
+    }
+
+    /**
+     * File of the persistent checksum cache, <code>null</code> calculates every digest.
+     */
+    public void setChecksumCacheFile(File checksumCacheFile)
+    {
+        this.checksumCacheFile = checksumCacheFile;
+    }
+
+    public int getChecksumCacheMaxEntries()
+    {
+        return checksumCacheMaxEntries;
     }
 
-    private void generateWhitelistEntry(File subDirectory, File originalDirectory, Element whistlistElement)
-            throws DOMException, NoSuchAlgorithmException, IOException
+    public void setChecksumCacheMaxEntries(int checksumCacheMaxEntries)
     {
-        String strippedDirectory = FilenameUtils.normalize(subDirectory.getPath().replace(originalDirectory.getPath(), ""), true);
+        this.checksumCacheMaxEntries = checksumCacheMaxEntries;
+    }
 
-        Element entry = whistlistElement.addElement("entry");
-        entry.addAttribute("path", strippedDirectory);
-        entry.addAttribute("md5", getFileChecksum(subDirectory));
+    private ChecksumCache openChecksumCache()
+    {
+        return checksumCacheFile != null ? ChecksumCache.open(checksumCacheFile, checksumCacheMaxEntries) : null;
+    }
 
+    public int getThreads()
+    {
+        return threads;
     }
 
-    private String getFileChecksum(File file) throws IOException, NoSuchAlgorithmException
+    /**
+     * Number of threads used to calculate checksums concurrently, a value of <code>1</code> generates sequentially.
+     */
+    public void setThreads(int threads)
     {
-        return DigestUtils.md5Hex(new FileInputStream(file));
+        this.threads = threads;
+    }
+
+    public int getNestedArchiveDepth()
+    {
+        return nestedArchiveDepth;
+    }
+
+    /**
+     * Maximum depth of nested archives written with child entries, <code>0</code> writes nested archives as plain
+     * files.
+     */
+    public void setNestedArchiveDepth(int nestedArchiveDepth)
+    {
+        this.nestedArchiveDepth = nestedArchiveDepth;
+    }
+
+    public Set<DigestAlgorithm> getDigestAlgorithms()
+    {
+        return digestAlgorithms;
+    }
+
+    /**
+     * Digest algorithms written as attributes of every generated entry, all of them are calculated in one read pass.
+     */
+    public void setDigestAlgorithms(Set<DigestAlgorithm> digestAlgorithms)
+    {
+        this.digestAlgorithms = digestAlgorithms.isEmpty() ? EnumSet.noneOf(DigestAlgorithm.class) : EnumSet.copyOf(digestAlgorithms);
+    }
+
+    /**
+     * Whitelist entry waiting for its checksum calculation.
+     */
+    private static class PendingEntry
+    {
+        private final String path;
+
+        private final Future<Map<DigestAlgorithm, byte[]>> digests;
+
+        private final Future<NestedFile> nestedArchive;
+
+        private final EntryEvent event;
+
+        PendingEntry(String path, Future<Map<DigestAlgorithm, byte[]>> digests, Future<NestedFile> nestedArchive, EntryEvent event)
+        {
+            this.path = path;
+            this.digests = digests;
+            this.nestedArchive = nestedArchive;
+            this.event = event;
+        }
     }
 
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps regions of a file into memory. Regions larger than a single mapping are split into consecutive segments, so
+ * files and archive entries above 2 GB are supported.
+ */
+final class MappedRegions
+{
+    private static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+    private MappedRegions()
+    {
+    }
+
+    /**
+     * @return read-only buffers covering the region in order, the mappings stay valid after the channel is closed
+     */
+    static List<ByteBuffer> map(FileChannel channel, long position, long size) throws IOException
+    {
+        List<ByteBuffer> segments = new ArrayList<>((int) (size / MAX_SEGMENT_SIZE) + 1);
+        long offset = 0;
+        while (offset < size)
+        {
+            long segmentSize = Math.min(MAX_SEGMENT_SIZE, size - offset);
+            segments.add(channel.map(MapMode.READ_ONLY, position + offset, segmentSize));
+            offset += segmentSize;
+        }
+        return segments;
+    }
+
+}
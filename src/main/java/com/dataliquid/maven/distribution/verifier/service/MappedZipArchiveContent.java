@@ -0,0 +1,84 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+
+/**
+ * Distribution content read directly from a zip based archive, with the data of STORED entries mapped into memory.
+ * STORED entries are hashed straight from the mapped archive without being copied, compressed entries are inflated on
+ * demand like {@link ZipArchiveContent} does.
+ */
+public class MappedZipArchiveContent extends ZipArchiveContent
+{
+    private final FileChannel channel;
+
+    private final Map<String, ZipCentralDirectory.Record> storedEntries = new HashMap<>();
+
+    public MappedZipArchiveContent(File distributionArchiveFile) throws IOException
+    {
+        super(distributionArchiveFile);
+        this.channel = FileChannel.open(distributionArchiveFile.toPath(), StandardOpenOption.READ);
+        try
+        {
+            for (ZipCentralDirectory.Record record : ZipCentralDirectory.read(channel))
+            {
+                if (record.getMethod() == ZipEntry.STORED && !record.isEncrypted() && record.getCompressedSize() == record.getSize())
+                {
+                    storedEntries.put(normalize(record.getName()), record);
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public List<ByteBuffer> map(String path) throws IOException
+    {
+        ZipCentralDirectory.Record record = storedEntries.get(normalize(path));
+        if (record == null)
+        {
+            return null;
+        }
+        return MappedRegions.map(channel, ZipCentralDirectory.getDataOffset(channel, record), record.getSize());
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            channel.close();
+        }
+        finally
+        {
+            super.close();
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.service;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import com.dataliquid.maven.distribution.verifier.domain.DigestAlgorithm;
+
+/**
+ * Cryptographic digests based on {@link MessageDigest}.
+ */
+public class MessageDigestStrategy implements DigestStrategy
+{
+    private final DigestAlgorithm algorithm;
+
+    private final MessageDigest messageDigest;
+
+    public MessageDigestStrategy(DigestAlgorithm algorithm) throws NoSuchAlgorithmException
+    {
+        this.algorithm = algorithm;
+        this.messageDigest = MessageDigest.getInstance(algorithm.getDisplayName());
+    }
+
+    @Override
+    public DigestAlgorithm getAlgorithm()
+    {
+        return algorithm;
+    }
+
+    @Override
+    public void update(ByteBuffer buffer)
+    {
+        messageDigest.update(buffer);
+    }
+
+    @Override
+    public byte[] digest()
+    {
+        return messageDigest.digest();
+    }
+
+    @Override
+    public void reset()
+    {
+        messageDigest.reset();
+    }
+
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.apache.commons.io.FilenameUtils;
+
+import com.dataliquid.maven.distribution.verifier.domain.DigestAlgorithm;
+import com.dataliquid.maven.distribution.verifier.domain.Entry;
+import com.dataliquid.maven.distribution.verifier.domain.WhitelistIndex;
+
+/**
+ * Reads archives nested in the distribution, e.g. a jar inside a war, as a stream of entries. The nested archive is
+ * never extracted, its own digests are calculated from the same bytes the entries are read from.
+ */
+class NestedArchiveReader
+{
+    private static final Set<DigestAlgorithm> UNDEFINED_FILE_ALGORITHMS = Collections.unmodifiableSet(EnumSet.of(DigestAlgorithm.MD5));
+
+    private static final Set<String> ARCHIVE_EXTENSIONS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList("jar", "war", "ear", "zip")));
+
+    private final DigestCalculator digestCalculator;
+
+    private final int maxDepth;
+
+    NestedArchiveReader(DigestCalculator digestCalculator, int maxDepth)
+    {
+        this.digestCalculator = digestCalculator;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Read the nested archive of the given whitelist entry, the stream is not closed.
+     * 
+     * @param inputStream
+     *            content of the nested archive
+     * @param archiveEntry
+     *            whitelist entry of the nested archive with its child entries
+     * @param depth
+     *            nesting depth of the archive, <code>1</code> for an archive inside the distribution
+     * @return digests of the archive and of all files inside it
+     */
+    NestedFile read(InputStream inputStream, Entry archiveEntry, int depth) throws Exception
+    {
+        DigestingInputStream digestingInputStream = new DigestingInputStream(inputStream, archiveEntry.getDigests().keySet());
+        Map<String, NestedFile> files = read(new ZipEntryStream(digestingInputStream), new WhitelistIndex(archiveEntry.getChildren()), depth);
+        return new NestedFile(digestingInputStream.digest(), files);
+    }
+
+    /**
+     * Read all files of the given archive, the files are hashed with the algorithms of their whitelist entry and
+     * nested archives with child entries are read up to the maximum depth. Excluded files are skipped unread.
+     * 
+     * @return files by normalized path
+     */
+    Map<String, NestedFile> read(ArchiveEntryStream entries, WhitelistIndex whitelistIndex, int depth) throws Exception
+    {
+        Map<String, NestedFile> files = new LinkedHashMap<>();
+        read(entries, whitelistIndex, depth, 0, files);
+        return files;
+    }
+
+    /**
+     * Read the files of the given archive into the given map and stop once the given number of files which are not
+     * defined in the whitelist was read, every further file could only be reported after these failures.
+     * 
+     * @param maxUndefinedFiles
+     *            maximum number of undefined files, <code>0</code> reads all files
+     * @return <code>true</code> if all files were read, <code>false</code> if files are left unread
+     */
+    boolean read(ArchiveEntryStream entries, WhitelistIndex whitelistIndex, int depth, int maxUndefinedFiles, Map<String, NestedFile> files)
+            throws Exception
+    {
+        int undefinedFiles = 0;
+        String path;
+        while ((path = entries.nextFile()) != null)
+        {
+            if (maxUndefinedFiles > 0 && undefinedFiles >= maxUndefinedFiles)
+            {
+                return false;
+            }
+            if (whitelistIndex.isExcluded(path))
+            {
+                continue;
+            }
+            Entry entry = whitelistIndex.findEntry(path);
+            if (entry == null && whitelistIndex.hasPatterns())
+            {
+                entry = whitelistIndex.findPatternEntry(path);
+            }
+            if (entry == null)
+            {
+                undefinedFiles++;
+                files.put(path, new NestedFile(digestCalculator.calculate(entries.getInputStream(), UNDEFINED_FILE_ALGORITHMS), null));
+            }
+            else if (!entry.getChildren().isEmpty() && depth < maxDepth)
+            {
+                files.put(path, read(entries.getInputStream(), entry, depth + 1));
+            }
+            else
+            {
+                files.put(path, new NestedFile(digestCalculator.calculate(entries.getInputStream(), entry.getDigests().keySet()), null));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Scan the given nested archive for a new whitelist, every file is hashed with the given algorithms and archives
+     * inside it are scanned up to the maximum depth. The stream is not closed.
+     */
+    NestedFile scan(InputStream inputStream, Set<DigestAlgorithm> algorithms, int depth) throws Exception
+    {
+        DigestingInputStream digestingInputStream = new DigestingInputStream(inputStream, algorithms);
+        Map<String, NestedFile> files = scan(new ZipEntryStream(digestingInputStream), algorithms, depth);
+        return new NestedFile(digestingInputStream.digest(), files);
+    }
+
+    /**
+     * Scan all files of the given archive for a new whitelist.
+     * 
+     * @return files by normalized path
+     */
+    Map<String, NestedFile> scan(ArchiveEntryStream entries, Set<DigestAlgorithm> algorithms, int depth) throws Exception
+    {
+        Map<String, NestedFile> files = new LinkedHashMap<>();
+        String path;
+        while ((path = entries.nextFile()) != null)
+        {
+            if (isArchive(path) && depth < maxDepth)
+            {
+                files.put(path, scan(entries.getInputStream(), algorithms, depth + 1));
+            }
+            else
+            {
+                files.put(path, new NestedFile(digestCalculator.calculate(entries.getInputStream(), algorithms), null));
+            }
+        }
+        return files;
+    }
+
+    static boolean isArchive(String path)
+    {
+        String extension = FilenameUtils.getExtension(path).toLowerCase(Locale.ROOT);
+        return ARCHIVE_EXTENSIONS.contains(extension);
+    }
+
+    /**
+     * Files of a nested zip archive, the archive is read from a stream and never extracted.
+     */
+    private static class ZipEntryStream implements ArchiveEntryStream
+    {
+        private final ZipInputStream zipInputStream;
+
+        ZipEntryStream(InputStream inputStream)
+        {
+            this.zipInputStream = new ZipInputStream(inputStream);
+        }
+
+        @Override
+        public String nextFile() throws IOException
+        {
+            ZipEntry zipEntry;
+            while ((zipEntry = zipInputStream.getNextEntry()) != null)
+            {
+                if (!zipEntry.isDirectory())
+                {
+                    return ZipArchiveContent.normalize(zipEntry.getName());
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public InputStream getInputStream()
+        {
+            return zipInputStream;
+        }
+    }
+
+    /**
+     * Digests of a file read from a nested archive, together with the files inside it when the file is a nested archive
+     * itself.
+     */
+    static class NestedFile
+    {
+        private final Map<DigestAlgorithm, byte[]> digests;
+
+        private final Map<String, NestedFile> files;
+
+        NestedFile(Map<DigestAlgorithm, byte[]> digests, Map<String, NestedFile> files)
+        {
+            this.digests = digests;
+            this.files = files;
+        }
+
+        Map<DigestAlgorithm, byte[]> getDigests()
+        {
+            return digests;
+        }
+
+        /**
+         * Files by normalized path, <code>null</code> when the file was not read as an archive.
+         */
+        Map<String, NestedFile> getFiles()
+        {
+            return files;
+        }
+    }
+
+}
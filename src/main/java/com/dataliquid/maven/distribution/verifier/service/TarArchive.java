@@ -0,0 +1,168 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.service;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.compressors.xz.XZCompressorInputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+
+/**
+ * Tar based distribution archive, uncompressed or compressed with gzip, xz or zstd. The format is detected from the
+ * magic bytes of the file and the entries are decompressed and read in a single sequential pass, nothing is extracted.
+ */
+class TarArchive implements ArchiveEntryStream, Closeable
+{
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final byte[] GZIP_MAGIC = { 0x1f, (byte) 0x8b };
+
+    private static final byte[] XZ_MAGIC = { (byte) 0xfd, '7', 'z', 'X', 'Z', 0 };
+
+    private static final byte[] ZSTD_MAGIC = { 0x28, (byte) 0xb5, 0x2f, (byte) 0xfd };
+
+    /**
+     * Magic of POSIX and GNU tar headers, located at offset 257 of the first header block.
+     */
+    private static final byte[] TAR_MAGIC = "ustar".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int TAR_MAGIC_OFFSET = 257;
+
+    private final TarArchiveInputStream tarInputStream;
+
+    private TarArchive(InputStream inputStream)
+    {
+        this.tarInputStream = new TarArchiveInputStream(inputStream);
+    }
+
+    /**
+     * Open the given tar archive for a sequential pass over its files.
+     */
+    static TarArchive open(File archiveFile) throws IOException
+    {
+        InputStream inputStream = openTarStream(archiveFile);
+        if (inputStream == null)
+        {
+            throw new IOException("File " + archiveFile + " is not a tar archive");
+        }
+        return new TarArchive(inputStream);
+    }
+
+    /**
+     * Whether the given file is a tar archive, a compressed archive is identified by the tar header after the
+     * decompression.
+     */
+    static boolean isTarArchive(File archiveFile) throws IOException
+    {
+        if (!archiveFile.isFile())
+        {
+            return false;
+        }
+        try (InputStream inputStream = openTarStream(archiveFile))
+        {
+            if (inputStream == null)
+            {
+                return false;
+            }
+            byte[] header = inputStream.readNBytes(TAR_MAGIC_OFFSET + TAR_MAGIC.length);
+            return header.length == TAR_MAGIC_OFFSET + TAR_MAGIC.length && startsWith(header, TAR_MAGIC_OFFSET, TAR_MAGIC);
+        }
+        catch (IOException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Open the decompressed content of the archive file, <code>null</code> if the file is neither compressed with a
+     * supported format nor a tar archive.
+     */
+    private static InputStream openTarStream(File archiveFile) throws IOException
+    {
+        InputStream inputStream = new BufferedInputStream(Files.newInputStream(archiveFile.toPath()), BUFFER_SIZE);
+        try
+        {
+            inputStream.mark(TAR_MAGIC_OFFSET + TAR_MAGIC.length);
+            byte[] magic = inputStream.readNBytes(TAR_MAGIC_OFFSET + TAR_MAGIC.length);
+            inputStream.reset();
+            if (startsWith(magic, 0, GZIP_MAGIC))
+            {
+                return new BufferedInputStream(new GzipCompressorInputStream(inputStream, true), BUFFER_SIZE);
+            }
+            if (startsWith(magic, 0, XZ_MAGIC))
+            {
+                return new BufferedInputStream(new XZCompressorInputStream(inputStream, true), BUFFER_SIZE);
+            }
+            if (startsWith(magic, 0, ZSTD_MAGIC))
+            {
+                return new BufferedInputStream(new ZstdCompressorInputStream(inputStream), BUFFER_SIZE);
+            }
+            if (startsWith(magic, TAR_MAGIC_OFFSET, TAR_MAGIC))
+            {
+                return inputStream;
+            }
+            inputStream.close();
+            return null;
+        }
+        catch (IOException | RuntimeException e)
+        {
+            inputStream.close();
+            throw e;
+        }
+    }
+
+    private static boolean startsWith(byte[] bytes, int offset, byte[] prefix)
+    {
+        return bytes.length >= offset + prefix.length && Arrays.equals(bytes, offset, offset + prefix.length, prefix, 0, prefix.length);
+    }
+
+    @Override
+    public String nextFile() throws IOException
+    {
+        TarArchiveEntry tarEntry;
+        while ((tarEntry = tarInputStream.getNextEntry()) != null)
+        {
+            if (tarEntry.isFile())
+            {
+                return ZipArchiveContent.normalize(tarEntry.getName());
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public InputStream getInputStream()
+    {
+        return tarInputStream;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        tarInputStream.close();
+    }
+
+}
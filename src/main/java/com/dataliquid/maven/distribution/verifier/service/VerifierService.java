@@ -16,58 +16,147 @@
 package com.dataliquid.maven.distribution.verifier.service;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.security.NoSuchAlgorithmException;
+import java.io.InputStream;
+import java.security.MessageDigest;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import org.apache.commons.codec.digest.DigestUtils;
-import org.apache.commons.io.FilenameUtils;
-import org.dom4j.Document;
-import org.dom4j.Element;
-import org.dom4j.Node;
-import org.dom4j.io.SAXReader;
+import java.util.Set;
+import java.util.concurrent.Future;
+
+import org.apache.commons.codec.binary.Hex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.w3c.dom.DOMException;
-import org.zeroturnaround.zip.ZipUtil;
 
+import com.dataliquid.maven.distribution.verifier.domain.ArchiveEngine;
+import com.dataliquid.maven.distribution.verifier.domain.DigestAlgorithm;
 import com.dataliquid.maven.distribution.verifier.domain.Entry;
+import com.dataliquid.maven.distribution.verifier.domain.PatternSyntax;
+import com.dataliquid.maven.distribution.verifier.domain.PhaseMetrics;
 import com.dataliquid.maven.distribution.verifier.domain.ResultEntry;
+import com.dataliquid.maven.distribution.verifier.domain.RunMetrics;
+import com.dataliquid.maven.distribution.verifier.domain.Verification;
 import com.dataliquid.maven.distribution.verifier.domain.VerificationStatus;
 import com.dataliquid.maven.distribution.verifier.domain.VerifierResult;
+import com.dataliquid.maven.distribution.verifier.domain.WhitelistIndex;
+import com.dataliquid.maven.distribution.verifier.domain.WhitelistParser;
+import com.dataliquid.maven.distribution.verifier.event.EntryEvent;
+import com.dataliquid.maven.distribution.verifier.service.NestedArchiveReader.NestedFile;
 
 public class VerifierService
 {
     private static final String EMPTY = "";
+
+    private static final String GOAL = "verify";
+
+    /**
+     * Separator between the path of a nested archive and the path of a file inside it, e.g.
+     * <code>/lib/sample.war!/WEB-INF/web.xml</code>.
+     */
+    public static final String NESTED_PATH_SEPARATOR = "!";
+
+    public static final int DEFAULT_NESTED_ARCHIVE_DEPTH = 8;
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
+    private ArchiveEngine archiveEngine = ArchiveEngine.UNPACK;
+
+    private int threads = ChecksumExecutor.defaultThreads();
+
+    private File checksumCacheFile;
+
+    private int checksumCacheMaxEntries = ChecksumCache.DEFAULT_MAX_ENTRIES;
+
+    private WhitelistParser whitelistParser = WhitelistParser.STREAM;
+
+    private File whitelistIndexDirectory;
+
+    private int nestedArchiveDepth = DEFAULT_NESTED_ARCHIVE_DEPTH;
+
+    private int maxFailures;
+
+    private List<String> excludes = Collections.emptyList();
+
     public VerifierResult verify(File distributionArchiveFile, File workDirectory, File whitelist, Map<String, String> properties)
+    {
+        try (ChecksumExecutor checksumExecutor = new ChecksumExecutor(threads); ChecksumCache checksumCache = openChecksumCache())
+        {
+            return verify(distributionArchiveFile, workDirectory, whitelist, properties, checksumExecutor, checksumCache);
+        }
+    }
+
+    /**
+     * Verify several distribution archive files against their whitelists concurrently. All checksums are calculated by
+     * one shared thread pool and at most <code>threads</code> archives are open at the same time, so neither the number
+     * of threads nor the open archives grow with the number of verifications.
+     * 
+     * @return results in the order of the given verifications
+     * @throws Exception
+     *             if the shared checksum cache can not be opened or a verification fails unexpectedly, the failures of
+     *             single files are reported by the results
+     */
+    public List<VerifierResult> verify(List<Verification> verifications, File workDirectory, Map<String, String> properties) throws Exception
+    {
+        List<VerifierResult> verifierResults = new ArrayList<>(verifications.size());
+        try (ChecksumExecutor checksumExecutor = new ChecksumExecutor(threads);
+                ChecksumExecutor verificationExecutor = new ChecksumExecutor(Math.min(threads, verifications.size()));
+                ChecksumCache checksumCache = openChecksumCache())
+        {
+            List<Future<VerifierResult>> pendingResults = new ArrayList<>(verifications.size());
+            for (Verification verification : verifications)
+            {
+                Map<String, String> verificationProperties = verification.getProperties() != null ? verification.getProperties() : properties;
+                pendingResults.add(verificationExecutor.submit(() -> verify(verification.getDistributionArchiveFile(), workDirectory,
+                        verification.getWhitelist(), verificationProperties, checksumExecutor, checksumCache)));
+            }
+            for (Future<VerifierResult> pendingResult : pendingResults)
+            {
+                verifierResults.add(ChecksumExecutor.await(pendingResult));
+            }
+        }
+        return verifierResults;
+    }
+
+    private VerifierResult verify(File distributionArchiveFile, File workDirectory, File whitelist, Map<String, String> properties,
+            ChecksumExecutor checksumExecutor, ChecksumCache checksumCache)
     {
         List<ResultEntry> verificationResults = new LinkedList<>();
         boolean verificationStatus = false;
+        RunMetrics metrics = new RunMetrics(GOAL, distributionArchiveFile);
         try
         {
-            File destinationDirectory = determineDestinationDirectory(distributionArchiveFile, workDirectory);
-
-            logger.info("Unzip distribution archive file " + distributionArchiveFile.getPath() + " to " + destinationDirectory);
-
-            ZipUtil.unpack(distributionArchiveFile, destinationDirectory);
-
-            logger.info("File unzipped successfully");
-
-            logger.info("Loading whitelist " + whitelist);
-            List<Entry> entries = loadWhitelist(whitelist, properties);
-            logger.info("Whitelist file loaded successfully - Entries: " + entries.size());
-
-            logger.info("Verifying whitelist files against distribution archive");
+            WhitelistIndex whitelistIndex = loadWhitelistIndex(whitelist, properties, metrics.phase(RunMetrics.WHITELIST));
+            if (TarArchive.isTarArchive(distributionArchiveFile))
+            {
+                verificationStatus = verifyTarArchive(distributionArchiveFile, whitelistIndex, verificationResults, metrics.phase(RunMetrics.HASHING));
+            }
+            else
+            {
+                // the whitelist is loaded first, so excluded files are not even unpacked
+                try (DistributionContent content = openContent(distributionArchiveFile, workDirectory, whitelistIndex, metrics.phase(RunMetrics.UNPACK)))
+                {
+                    logger.info("Verifying whitelist files against distribution archive");
 
-            verificationStatus = verifyDistributionArchive(destinationDirectory, entries, destinationDirectory,verificationResults);
+                    PhaseMetrics hashingMetrics = metrics.phase(RunMetrics.HASHING);
+                    hashingMetrics.start();
+                    try
+                    {
+                        verificationStatus = verifyDistributionArchive(content, whitelistIndex, verificationResults, checksumExecutor, checksumCache,
+                                metrics);
+                    }
+                    finally
+                    {
+                        hashingMetrics.stop();
+                    }
+                }
+            }
 
             logger.info("Verification completed.");
 
@@ -78,197 +167,800 @@ public class VerifierService
             logger.error("Error occurred : {}", e.getMessage(), e);
         }
 
-        return new VerifierResult(verificationStatus, verificationResults);
+        metrics.setStatus(verificationStatus ? VerificationStatus.SUCCESS.name() : VerificationStatus.FAILED.name());
+        return new VerifierResult(verificationStatus, verificationResults, metrics);
 
     }
 
-    private File determineDestinationDirectory(File distributionArchiveFile, File workDirectory)
+    /**
+     * Open the content of the distribution archive, the unpack phase covers the extraction of the unpack engine.
+     */
+    private DistributionContent openContent(File distributionArchiveFile, File workDirectory, WhitelistIndex whitelistIndex, PhaseMetrics unpackMetrics)
+            throws IOException
     {
-        File destinationDirectory = null;
-        if (workDirectory != null)
+        unpackMetrics.start();
+        try
         {
-            String distributionWorkDirectory = distributionArchiveFile.getName().concat("-unzipped");
-            destinationDirectory = new File(workDirectory, distributionWorkDirectory);
+            DistributionContent content = new DistributionContentFactory().open(distributionArchiveFile, workDirectory, archiveEngine,
+                    whitelistIndex::isExcluded, whitelistIndex::isExcludedDirectory);
+            if (archiveEngine == ArchiveEngine.UNPACK && distributionArchiveFile.isFile())
+            {
+                unpackMetrics.addBytes(distributionArchiveFile.length());
+            }
+            return content;
         }
-        else
+        finally
         {
-            String name = distributionArchiveFile.getName().concat("-unzipped");
-            destinationDirectory = new File(distributionArchiveFile.getParentFile(), name);
+            unpackMetrics.stop();
         }
-        return destinationDirectory;
     }
 
-    private boolean verifyDistributionArchive(File directory, List<Entry> entries, File originalDirectory, List<ResultEntry> verificationResults) throws Exception
+    /**
+     * Verify a tar archive in a single sequential pass, every file is hashed while it is decompressed. With a maximum
+     * number of failures the archive is read only until as many undefined files were found.
+     */
+    private boolean verifyTarArchive(File distributionArchiveFile, WhitelistIndex whitelistIndex, List<ResultEntry> verificationResults,
+            PhaseMetrics hashingMetrics) throws Exception
+    {
+        logger.info("Verifying whitelist files against tar archive " + distributionArchiveFile.getPath() + " in a single pass");
+
+        hashingMetrics.start();
+        try
+        {
+            DigestCalculator digestCalculator = new DigestCalculator(true);
+            digestCalculator.setMetrics(hashingMetrics);
+            NestedArchiveReader nestedArchiveReader = new NestedArchiveReader(digestCalculator, nestedArchiveDepth);
+            Map<String, NestedFile> files = new LinkedHashMap<>();
+            boolean allFilesRead;
+            try (TarArchive tarArchive = TarArchive.open(distributionArchiveFile))
+            {
+                allFilesRead = nestedArchiveReader.read(tarArchive, whitelistIndex, 0, maxFailures, files);
+            }
+            return verifyArchiveFiles(EMPTY, whitelistIndex, files, allFilesRead, new FailureLimit(maxFailures), verificationResults);
+        }
+        finally
+        {
+            hashingMetrics.stop();
+        }
+    }
+
+    private boolean verifyDistributionArchive(DistributionContent content, WhitelistIndex whitelistIndex, List<ResultEntry> verificationResults,
+            ChecksumExecutor checksumExecutor, ChecksumCache checksumCache, RunMetrics metrics) throws Exception
     {
         boolean verificationStatus = true;
 
-        for (Entry entry : entries)
+        List<String> distributionFiles = content.listFiles();
+        metrics.phase(RunMetrics.UNPACK).addEntries(distributionFiles.size());
+        Set<String> distributionFileIndex = new HashSet<>(distributionFiles);
+        DigestCalculator digestCalculator = new DigestCalculator(isReadingContent());
+        digestCalculator.setChecksumCache(checksumCache);
+        digestCalculator.setMetrics(metrics.phase(RunMetrics.HASHING));
+        NestedArchiveReader nestedArchiveReader = new NestedArchiveReader(digestCalculator, nestedArchiveDepth);
+
+        FailureLimit failureLimit = new FailureLimit(maxFailures);
+        int knownFailures = 0;
+        List<PendingVerification> definedFiles = new ArrayList<>(whitelistIndex.size());
+        Map<Entry, List<PendingVerification>> patternMatches = new IdentityHashMap<>();
+        for (Entry entry : whitelistIndex.getEntries())
+        {
+            if (entry.isPattern())
+            {
+                List<PendingVerification> matches = new ArrayList<>();
+                patternMatches.put(entry, matches);
+                definedFiles.add(new PendingVerification(entry, matches));
+                continue;
+            }
+            boolean found = distributionFileIndex.contains(WhitelistIndex.normalize(entry.getPath())) || content.exists(entry.getPath());
+            if (failureLimit.isReached(knownFailures))
+            {
+                // the verification is truncated before this entry, it is not read at all
+                definedFiles.add(new PendingVerification(entry, found, null, null, null));
+                continue;
+            }
+            if (!found)
+            {
+                knownFailures++;
+            }
+            EntryEvent event = EntryEvent.create(GOAL, entry.getPath());
+            Future<Map<DigestAlgorithm, byte[]>> digests = null;
+            Future<NestedFile> nestedArchive = null;
+            if (found && isReadingNestedArchive(entry))
+            {
+                nestedArchive = checksumExecutor.submit(() -> readNestedArchive(content, entry, nestedArchiveReader, event));
+            }
+            else if (found && !entry.getDigests().isEmpty())
+            {
+                Set<DigestAlgorithm> algorithms = EnumSet.copyOf(entry.getDigests().keySet());
+                digests = checksumExecutor.submit(() -> digestCalculator.calculate(content, entry.getPath(), algorithms, event));
+            }
+            definedFiles.add(new PendingVerification(entry, found, digests, nestedArchive, event));
+        }
+
+        List<PendingVerification> undefinedFiles = collectFilesNotInWhitelist(content, distributionFiles, whitelistIndex, patternMatches,
+                checksumExecutor, digestCalculator, failureLimit, knownFailures);
+
+        for (int i = 0; i < definedFiles.size(); i++)
+        {
+            if (failureLimit.isReached(verificationResults))
+            {
+                truncate(definedFiles.subList(i, definedFiles.size()), undefinedFiles, verificationResults);
+                return false;
+            }
+            if (!verifyDefinedFile(definedFiles.get(i), verificationResults))
+            {
+                verificationStatus = false;
+            }
+        }
+
+        boolean verifyAllFilesInWhitelist = verifyAllFilesInWhitelist(undefinedFiles, verificationResults, failureLimit);
+        if (!verifyAllFilesInWhitelist)
+        {
+            verificationStatus = false;
+        }
+        return verificationStatus;
+    }
+
+    private boolean isReadingNestedArchive(Entry entry)
+    {
+        return !entry.getChildren().isEmpty() && nestedArchiveDepth > 0 && isReadingContent();
+    }
+
+    private NestedFile readNestedArchive(DistributionContent content, Entry entry, NestedArchiveReader nestedArchiveReader, EntryEvent event)
+            throws Exception
+    {
+        if (event != null)
         {
-            ResultEntry resultEntry = new ResultEntry();
-            verificationResults.add(resultEntry);
-            resultEntry.setPath(entry.getPath());
-            resultEntry.setMd5(entry.getMd5());
+            event.begin(content.getSize(entry.getPath()), content.getCompressionMethod(entry.getPath()));
+        }
+        try (InputStream inputStream = content.openStream(entry.getPath()))
+        {
+            return nestedArchiveReader.read(inputStream, entry, 1);
+        }
+        finally
+        {
+            if (event != null)
+            {
+                event.end();
+            }
+        }
+    }
 
-            File currentFile = new File(directory.getPath().concat(entry.getPath()));
-            if (currentFile.exists())
+    private boolean verifyDefinedFile(PendingVerification definedFile, List<ResultEntry> verificationResults) throws Exception
+    {
+        Entry entry = definedFile.entry;
+        if (definedFile.matches != null)
+        {
+            boolean verificationStatus = verifyPatternEntry(entry, entry.getPath(), definedFile.matches.size(), verificationResults);
+            for (PendingVerification match : definedFile.matches)
             {
-                logger.debug("Defined entry found " + entry.getPath());
+                if (!verifyDefinedFile(match, verificationResults))
+                {
+                    verificationStatus = false;
+                }
+            }
+            return verificationStatus;
+        }
+        if (definedFile.nestedArchive != null)
+        {
+            NestedFile nestedArchive = ChecksumExecutor.await(definedFile.nestedArchive);
+            boolean verificationStatus = verifyDefinedFile(entry, entry.getPath(), true, nestedArchive.getDigests(), verificationResults);
+            commitEntryEvent(definedFile.event, verificationResults);
+            return verifyArchiveFiles(entry.getPath() + NESTED_PATH_SEPARATOR, new WhitelistIndex(entry.getChildren()), nestedArchive.getFiles(),
+                    verificationResults) && verificationStatus;
+        }
+        Map<DigestAlgorithm, byte[]> fileDigests = definedFile.digests != null ? ChecksumExecutor.await(definedFile.digests) : Collections.emptyMap();
+        boolean verificationStatus = verifyDefinedFile(entry, entry.getPath(), definedFile.found, fileDigests, verificationResults);
+        commitEntryEvent(definedFile.event, verificationResults);
+        return verificationStatus;
+    }
+
+    /**
+     * Commit the entry event of a file with the outcome of its verification, the last result.
+     */
+    private static void commitEntryEvent(EntryEvent event, List<ResultEntry> verificationResults)
+    {
+        if (event != null)
+        {
+            ResultEntry resultEntry = verificationResults.get(verificationResults.size() - 1);
+            event.commit(resultEntry.getStatus(), resultEntry.getMessage());
+        }
+    }
 
-                if (entry.getMd5() != null && !entry.getMd5().isEmpty())
+    private boolean verifyArchiveFiles(String pathPrefix, WhitelistIndex whitelistIndex, Map<String, NestedFile> files,
+            List<ResultEntry> verificationResults)
+    {
+        return verifyArchiveFiles(pathPrefix, whitelistIndex, files, true, new FailureLimit(0), verificationResults);
+    }
+
+    /**
+     * Verify the whitelist entries against the files read from an archive, followed by the files which are not defined
+     * in the whitelist. Files without an exact entry are verified against the first matching pattern entry.
+     * 
+     * @param pathPrefix
+     *            prefix of the reported paths, the path of a nested archive including the separator
+     * @param allFilesRead
+     *            <code>false</code> if reading the archive stopped early, the entries from the first one which depends
+     *            on the unread files are skipped and the verification is truncated after the undefined files
+     */
+    private boolean verifyArchiveFiles(String pathPrefix, WhitelistIndex whitelistIndex, Map<String, NestedFile> files, boolean allFilesRead,
+            FailureLimit failureLimit, List<ResultEntry> verificationResults)
+    {
+        boolean verificationStatus = true;
+        Map<Entry, List<String>> patternMatches = new IdentityHashMap<>();
+        List<String> undefinedFiles = new ArrayList<>();
+        for (String file : files.keySet())
+        {
+            if (whitelistIndex.contains(file))
+            {
+                continue;
+            }
+            Entry patternEntry = findPatternEntry(whitelistIndex, file);
+            if (patternEntry != null)
+            {
+                patternMatches.computeIfAbsent(patternEntry, key -> new ArrayList<>()).add(file);
+            }
+            else
+            {
+                undefinedFiles.add(file);
+            }
+        }
+        List<Entry> entries = whitelistIndex.getEntries();
+        int skippedEntries = 0;
+        for (int i = 0; i < entries.size(); i++)
+        {
+            Entry entry = entries.get(i);
+            NestedFile file = files.get(WhitelistIndex.normalize(entry.getPath()));
+            if (failureLimit.isReached(verificationResults))
+            {
+                truncate(entries.size() - i + undefinedFiles.size(), allFilesRead, verificationResults);
+                return false;
+            }
+            if (!allFilesRead && (entry.isPattern() || file == null))
+            {
+                skippedEntries = entries.size() - i;
+                break;
+            }
+            String path = pathPrefix + entry.getPath();
+            if (entry.isPattern())
+            {
+                List<String> matches = patternMatches.getOrDefault(entry, Collections.emptyList());
+                if (!verifyPatternEntry(entry, path, matches.size(), verificationResults))
                 {
-                    String fileMd5Checksum = getFileChecksum(currentFile);
-                    if (fileMd5Checksum.equals(entry.getMd5()))
-                    {
-                        logger.debug("MD5 Checksum of file " + currentFile.getPath() + " is identical to " + entry.getPath());
-                        resultEntry.setStatus(VerificationStatus.SUCCESS.name());
-                        resultEntry.setMessage("Validation passed successfully");
-                    }
-                    else
+                    verificationStatus = false;
+                }
+                for (String match : matches)
+                {
+                    if (!verifyDefinedFile(entry.createMatch(match), pathPrefix + match, true, files.get(match).getDigests(), verificationResults))
                     {
                         verificationStatus = false;
-
-                        logger.debug("MD5 checksum of file " + currentFile.getPath() + " is different to " + entry.getPath());
-                        resultEntry.setStatus(VerificationStatus.FAILED.name());
-                        resultEntry.setMessage("File found but with a different MD5 Checksum " + fileMd5Checksum);
                     }
                 }
-                else
+                continue;
+            }
+            Map<DigestAlgorithm, byte[]> fileDigests = file != null ? file.getDigests() : Collections.emptyMap();
+            if (!verifyDefinedFile(entry, path, file != null, fileDigests, verificationResults))
+            {
+                verificationStatus = false;
+            }
+            if (file != null && file.getFiles() != null && !verifyArchiveFiles(path + NESTED_PATH_SEPARATOR, new WhitelistIndex(entry.getChildren()),
+                    file.getFiles(), verificationResults))
+            {
+                verificationStatus = false;
+            }
+        }
+        for (int i = 0; i < undefinedFiles.size(); i++)
+        {
+            if (failureLimit.isReached(verificationResults))
+            {
+                truncate(skippedEntries + undefinedFiles.size() - i, allFilesRead, verificationResults);
+                return false;
+            }
+            verificationStatus = false;
+            String file = undefinedFiles.get(i);
+            verifyFileInWhitelist(pathPrefix + file, files.get(file).getDigests(), verificationResults);
+        }
+        if (!allFilesRead)
+        {
+            truncate(skippedEntries, false, verificationResults);
+            return false;
+        }
+        return verificationStatus;
+    }
+
+    private static Entry findPatternEntry(WhitelistIndex whitelistIndex, String path)
+    {
+        return whitelistIndex.hasPatterns() ? whitelistIndex.findPatternEntry(path) : null;
+    }
+
+    /**
+     * Verify the number of files matched by a pattern entry against its occurrence limits.
+     */
+    private boolean verifyPatternEntry(Entry entry, String path, int matchCount, List<ResultEntry> verificationResults)
+    {
+        ResultEntry resultEntry = new ResultEntry();
+        verificationResults.add(resultEntry);
+        resultEntry.setPath(path);
+        resultEntry.setDigests(entry.getDigests());
+
+        logger.debug("Pattern " + path + " matched " + matchCount + " files");
+
+        if (matchCount < entry.getMinOccurs())
+        {
+            resultEntry.setStatus(VerificationStatus.FAILED.name());
+            resultEntry.setMessage("Pattern matched " + matchCount + " files but expects at least " + entry.getMinOccurs());
+            return false;
+        }
+        if (entry.getMaxOccurs() != Entry.UNBOUNDED && matchCount > entry.getMaxOccurs())
+        {
+            resultEntry.setStatus(VerificationStatus.FAILED.name());
+            resultEntry.setMessage("Pattern matched " + matchCount + " files but expects at most " + entry.getMaxOccurs());
+            return false;
+        }
+        resultEntry.setStatus(VerificationStatus.SUCCESS.name());
+        resultEntry.setMessage("Pattern matched " + matchCount + " files");
+        return true;
+    }
+
+    private boolean verifyDefinedFile(Entry entry, String path, boolean found, Map<DigestAlgorithm, byte[]> fileDigests,
+            List<ResultEntry> verificationResults)
+    {
+        boolean verificationStatus = true;
+
+        ResultEntry resultEntry = new ResultEntry();
+        verificationResults.add(resultEntry);
+        resultEntry.setPath(path);
+        resultEntry.setDigests(entry.getDigests());
+
+        if (found)
+        {
+            logger.debug("Defined entry found " + path);
+
+            List<DigestAlgorithm> verifiedDigests = new ArrayList<>();
+            List<DigestAlgorithm> unverifiedDigests = new ArrayList<>();
+            for (Map.Entry<DigestAlgorithm, String> expectedDigest : entry.getDigests().entrySet())
+            {
+                DigestAlgorithm algorithm = expectedDigest.getKey();
+                byte[] fileDigest = fileDigests.get(algorithm);
+                if (fileDigest == null)
+                {
+                    logger.warn(algorithm.getDisplayName() + " checksum of file " + path + " is not verified by the "
+                            + archiveEngine.getParameterValue() + " engine");
+                    unverifiedDigests.add(algorithm);
+                }
+                else if (MessageDigest.isEqual(fileDigest, entry.getDecodedDigest(algorithm)))
                 {
-                    resultEntry.setStatus(VerificationStatus.SUCCESS.name());
-                    resultEntry.setMessage("Validation passed successfully");
+                    verifiedDigests.add(algorithm);
+                }
+                else if (verificationStatus)
+                {
+                    verificationStatus = false;
+
+                    logger.debug(algorithm.getDisplayName() + " checksum of file " + path + " is different to " + expectedDigest.getValue());
+                    resultEntry.setStatus(VerificationStatus.FAILED.name());
+                    resultEntry.setMessage("File found but with a different " + algorithm.getDisplayName() + " Checksum " + Hex.encodeHexString(fileDigest));
                 }
             }
-            else
+            resultEntry.setVerifiedDigests(verifiedDigests);
+
+            // a file is never reported as verified without any of its checksums being compared
+            if (verificationStatus && verifiedDigests.isEmpty() && !unverifiedDigests.isEmpty())
             {
                 verificationStatus = false;
 
-                logger.debug("Defined file is not found " + entry.getPath() + EMPTY);
-
                 resultEntry.setStatus(VerificationStatus.FAILED.name());
-                resultEntry.setMessage("Defined file not found");
+                resultEntry.setMessage("File found but its " + unverifiedDigests.get(0).getDisplayName() + " Checksum can not be verified by the "
+                        + archiveEngine.getParameterValue() + " engine");
+            }
+            if (verificationStatus)
+            {
+                logger.debug("Checksums of file " + path + " are identical");
+                resultEntry.setStatus(VerificationStatus.SUCCESS.name());
+                resultEntry.setMessage("Validation passed successfully");
             }
-
         }
-
-        boolean verifyAllFilesInWhitelist = verifyAllFilesInWhitelist(directory, entries, originalDirectory, verificationResults);
-        if (!verifyAllFilesInWhitelist)
+        else
         {
             verificationStatus = false;
+
+            logger.debug("Defined file is not found " + path + EMPTY);
+
+            resultEntry.setStatus(VerificationStatus.FAILED.name());
+            resultEntry.setMessage("Defined file not found");
         }
         return verificationStatus;
     }
 
-    private boolean verifyAllFilesInWhitelist(File directory, List<Entry> whitelistEntries, File originalDirectory, List<ResultEntry> verificationResults) throws Exception
+    private List<PendingVerification> collectFilesNotInWhitelist(DistributionContent content, List<String> distributionFiles,
+            WhitelistIndex whitelistIndex, Map<Entry, List<PendingVerification>> patternMatches, ChecksumExecutor checksumExecutor,
+            DigestCalculator digestCalculator, FailureLimit failureLimit, int knownFailures)
     {
-        boolean allFilesFound = true;
-        File[] directoryEntries = directory.listFiles();
-        for (File directoryEntry : directoryEntries)
+        Set<DigestAlgorithm> algorithms = isReadingContent() ? EnumSet.of(DigestAlgorithm.MD5) : EnumSet.of(DigestAlgorithm.CRC32);
+        List<PendingVerification> undefinedFiles = new ArrayList<>();
+        int excludedFiles = 0;
+        for (String path : distributionFiles)
         {
-            if (directoryEntry.isDirectory())
+            if (whitelistIndex.contains(path))
+            {
+                continue;
+            }
+            if (whitelistIndex.isExcluded(path))
             {
-               if(!verifyAllFilesInWhitelist(directoryEntry, whitelistEntries, originalDirectory, verificationResults))
-               {
-                   allFilesFound = false;
-               }
+                excludedFiles++;
+                continue;
+            }
+            Entry patternEntry = findPatternEntry(whitelistIndex, path);
+            if (patternEntry != null)
+            {
+                Entry entry = patternEntry.createMatch(path);
+                EntryEvent event = EntryEvent.create(GOAL, path);
+                Future<Map<DigestAlgorithm, byte[]>> digests = null;
+                if (!entry.getDigests().isEmpty())
+                {
+                    Set<DigestAlgorithm> entryAlgorithms = EnumSet.copyOf(entry.getDigests().keySet());
+                    digests = checksumExecutor.submit(() -> digestCalculator.calculate(content, path, entryAlgorithms, event));
+                }
+                patternMatches.get(patternEntry).add(new PendingVerification(entry, true, digests, null, event));
             }
             else
             {
-                if (!verifyFileInWhitelist(directoryEntry, whitelistEntries, originalDirectory, verificationResults))
+                Entry entry = new Entry();
+                entry.setPath(path);
+                if (failureLimit.isReached(knownFailures))
                 {
-                    allFilesFound = false;
+                    // every undefined file fails, the verification is truncated before this file
+                    undefinedFiles.add(new PendingVerification(entry, true, null, null, null));
+                    continue;
                 }
+                knownFailures++;
+                EntryEvent event = EntryEvent.create(GOAL, path);
+                undefinedFiles.add(new PendingVerification(entry, true,
+                        checksumExecutor.submit(() -> digestCalculator.calculate(content, path, algorithms, event)), null, event));
             }
         }
-        return allFilesFound;
+        if (excludedFiles > 0)
+        {
+            logger.info("Excluded files skipped without reading them: " + excludedFiles);
+        }
+        return undefinedFiles;
     }
 
-    private boolean verifyFileInWhitelist(File subDirectory, List<Entry> entries, File originalDirectory, List<ResultEntry> verificationResults)
-            throws DOMException, NoSuchAlgorithmException, IOException
+    private boolean verifyAllFilesInWhitelist(List<PendingVerification> undefinedFiles, List<ResultEntry> verificationResults,
+            FailureLimit failureLimit) throws Exception
     {
-        boolean exists = false;
-        String strippedDirectory = FilenameUtils.normalize(subDirectory.getPath().replace(originalDirectory.getPath(), EMPTY), true);
-        for (Entry entry : entries)
+        for (int i = 0; i < undefinedFiles.size(); i++)
         {
-            if (FilenameUtils.equalsNormalized(strippedDirectory, entry.getPath()))
+            if (failureLimit.isReached(verificationResults))
             {
-                exists = true;
+                truncate(Collections.emptyList(), undefinedFiles.subList(i, undefinedFiles.size()), verificationResults);
                 break;
             }
+            verifyFileInWhitelist(undefinedFiles.get(i), verificationResults);
         }
-        if (!exists)
+        return undefinedFiles.isEmpty();
+    }
+
+    /**
+     * Stop the verification once the maximum number of failures is reached. The checksums of the remaining files are
+     * cancelled and a result reports how many files were not verified.
+     */
+    private void truncate(List<PendingVerification> definedFiles, List<PendingVerification> undefinedFiles, List<ResultEntry> verificationResults)
+    {
+        for (PendingVerification definedFile : definedFiles)
         {
-            ResultEntry resultEntry = new ResultEntry();
-            verificationResults.add(resultEntry);
-            resultEntry.setPath(strippedDirectory);
-            resultEntry.setMd5(getFileChecksum(subDirectory));
-            resultEntry.setStatus(VerificationStatus.FAILED.name());
-            resultEntry.setMessage("File is not defined in whitelist");
+            definedFile.cancel();
         }
-        return exists;
+        for (PendingVerification undefinedFile : undefinedFiles)
+        {
+            undefinedFile.cancel();
+        }
+        truncate(definedFiles.size() + undefinedFiles.size(), true, verificationResults);
+    }
+
+    /**
+     * Add the result which reports a truncated verification, it has no path as it stands for no file of the
+     * distribution.
+     * 
+     * @param allFilesRead
+     *            <code>false</code> if files of the archive were left unread, these are not counted
+     */
+    private void truncate(int skippedFiles, boolean allFilesRead, List<ResultEntry> verificationResults)
+    {
+        logger.info("Maximum number of failures " + maxFailures + " reached, verification truncated - Skipped: " + skippedFiles);
+
+        ResultEntry resultEntry = new ResultEntry();
+        verificationResults.add(resultEntry);
+        resultEntry.setStatus(VerificationStatus.TRUNCATED.name());
+        resultEntry.setMessage("Verification truncated after " + maxFailures + " failures, " + skippedFiles + " files not verified"
+                + (allFilesRead ? EMPTY : " and the remaining files of the archive not read"));
+    }
+
+    private void verifyFileInWhitelist(PendingVerification undefinedFile, List<ResultEntry> verificationResults) throws Exception
+    {
+        verifyFileInWhitelist(undefinedFile.entry.getPath(), ChecksumExecutor.await(undefinedFile.digests), verificationResults);
+        commitEntryEvent(undefinedFile.event, verificationResults);
+    }
+
+    private void verifyFileInWhitelist(String path, Map<DigestAlgorithm, byte[]> fileDigests, List<ResultEntry> verificationResults)
+    {
+        ResultEntry resultEntry = new ResultEntry();
+        verificationResults.add(resultEntry);
+        resultEntry.setPath(path);
+        resultEntry.setDigests(DigestCalculator.encode(fileDigests));
+        resultEntry.setStatus(VerificationStatus.FAILED.name());
+        resultEntry.setMessage("File is not defined in whitelist");
     }
 
     public List<Entry> loadWhitelist(File whitelist, Map<String, String> properties) throws Exception
     {
-        SAXReader reader = new SAXReader();
-        Document document = reader.read(whitelist);
+        return createWhitelistLoader().load(whitelist, properties).getEntries();
+    }
 
-        List<Entry> entries = new ArrayList<Entry>();
-        List<Node> nodes = document.selectNodes("//whitelist/entry");
-        for (Node node : nodes)
+    private WhitelistIndex loadWhitelistIndex(File whitelist, Map<String, String> properties, PhaseMetrics whitelistMetrics) throws Exception
+    {
+        logger.info("Loading whitelist " + whitelist);
+        whitelistMetrics.start();
+        WhitelistIndex whitelistIndex;
+        try
         {
-            if (node.getNodeType() == Node.ELEMENT_NODE)
-            {
-                Element element = (Element) node;
+            whitelistIndex = readWhitelistIndex(whitelist, properties);
+            whitelistMetrics.addBytes(whitelist.length());
+            whitelistMetrics.addEntries(whitelistIndex.size());
+        }
+        finally
+        {
+            whitelistMetrics.stop();
+        }
+        for (String exclude : excludes)
+        {
+            whitelistIndex.addExclude(exclude, PatternSyntax.GLOB);
+        }
+        logger.info("Whitelist file loaded successfully - Entries: " + whitelistIndex.size());
+        return whitelistIndex;
+    }
 
-                Entry entry = new Entry();
-                entry.setPath(element.attributeValue("path"));
-                entry.setMd5(element.attributeValue("md5"));
-                evaluate(entry, properties);
-                entries.add(entry);
-                logger.debug("<entry path=\"" + entry.getPath() + "\" md5=\"" + entry.getMd5() + "\"");
-            }
+    private WhitelistIndex readWhitelistIndex(File whitelist, Map<String, String> properties) throws Exception
+    {
+        if (whitelistIndexDirectory != null)
+        {
+            return new WhitelistIndexCache(whitelistIndexDirectory).load(whitelist, properties, createWhitelistLoader());
         }
+        return createWhitelistLoader().load(whitelist, properties);
+    }
 
-        return entries;
+    WhitelistLoader createWhitelistLoader()
+    {
+        WhitelistLoader whitelistLoader = new WhitelistLoader();
+        whitelistLoader.setWhitelistParser(whitelistParser);
+        return whitelistLoader;
     }
 
-    private void evaluate(Entry entry, Map<String, String> properties)
+    private boolean isReadingContent()
     {
-        String path = evaluateString(entry.getPath(), properties);
-        entry.setPath(path);
+        return archiveEngine != ArchiveEngine.CENTRAL_DIRECTORY;
+    }
+
+    public File getChecksumCacheFile()
+    {
+        return checksumCacheFile;
     }
 
     /**
-     * Evaluate variable within given string value
-     * 
-     * @param value
-     *            lorem ${var} elit
-     * @param variables
-     *            Map<String, String> vars; vars.put("var", "ipsum");
-     * @return
+     * File of the persistent checksum cache, <code>null</code> calculates every digest.
+     */
+    public void setChecksumCacheFile(File checksumCacheFile)
+    {
+        this.checksumCacheFile = checksumCacheFile;
+    }
+
+    public int getChecksumCacheMaxEntries()
+    {
+        return checksumCacheMaxEntries;
+    }
+
+    public void setChecksumCacheMaxEntries(int checksumCacheMaxEntries)
+    {
+        this.checksumCacheMaxEntries = checksumCacheMaxEntries;
+    }
+
+    private ChecksumCache openChecksumCache()
+    {
+        return checksumCacheFile != null ? ChecksumCache.open(checksumCacheFile, checksumCacheMaxEntries) : null;
+    }
+
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    /**
+     * Number of threads used to calculate checksums concurrently, a value of <code>1</code> verifies sequentially.
+     */
+    public void setThreads(int threads)
+    {
+        this.threads = threads;
+    }
+
+    public WhitelistParser getWhitelistParser()
+    {
+        return whitelistParser;
+    }
+
+    public void setWhitelistParser(WhitelistParser whitelistParser)
+    {
+        this.whitelistParser = whitelistParser;
+    }
+
+    public File getWhitelistIndexDirectory()
+    {
+        return whitelistIndexDirectory;
+    }
+
+    /**
+     * Directory of the compiled whitelist indexes reused between runs, <code>null</code> parses the whitelist on every
+     * run.
+     */
+    public void setWhitelistIndexDirectory(File whitelistIndexDirectory)
+    {
+        this.whitelistIndexDirectory = whitelistIndexDirectory;
+    }
+
+    public int getNestedArchiveDepth()
+    {
+        return nestedArchiveDepth;
+    }
+
+    /**
+     * Maximum depth of nested archives verified against the child entries of the whitelist, <code>0</code> verifies
+     * nested archives as plain files.
      */
-    private String evaluateString(String value, Map<String, String> variables)
+    public void setNestedArchiveDepth(int nestedArchiveDepth)
+    {
+        this.nestedArchiveDepth = nestedArchiveDepth;
+    }
+
+    public int getMaxFailures()
     {
-        final Matcher matcher = Pattern.compile("\\$\\{(.*?)\\}").matcher(value);
-        final StringBuffer buffer = new StringBuffer(value.length());
-        while (matcher.find())
+        return maxFailures;
+    }
+
+    /**
+     * Truncate the verification of a zip based archive or directory once the given number of files failed, pending
+     * checksums are cancelled. <code>0</code> verifies all files.
+     */
+    public void setMaxFailures(int maxFailures)
+    {
+        this.maxFailures = maxFailures;
+    }
+
+    public List<String> getExcludes()
+    {
+        return excludes;
+    }
+
+    /**
+     * Glob patterns of files which are skipped by every verification in addition to the exclude rules of the
+     * whitelist. Excluded files are neither unpacked, hashed nor reported.
+     */
+    public void setExcludes(List<String> excludes)
+    {
+        this.excludes = excludes != null ? excludes : Collections.emptyList();
+    }
+
+    public ArchiveEngine getArchiveEngine()
+    {
+        return archiveEngine;
+    }
+
+    public void setArchiveEngine(ArchiveEngine archiveEngine)
+    {
+        this.archiveEngine = archiveEngine;
+    }
+
+    /**
+     * Whitelist entry or undefined file together with its checksum calculation.
+     */
+    private static class PendingVerification
+    {
+        private final Entry entry;
+
+        private final boolean found;
+
+        private final Future<Map<DigestAlgorithm, byte[]>> digests;
+
+        private final Future<NestedFile> nestedArchive;
+
+        private final List<PendingVerification> matches;
+
+        private final EntryEvent event;
+
+        PendingVerification(Entry entry, boolean found, Future<Map<DigestAlgorithm, byte[]>> digests, Future<NestedFile> nestedArchive,
+                EntryEvent event)
+        {
+            this.entry = entry;
+            this.found = found;
+            this.digests = digests;
+            this.nestedArchive = nestedArchive;
+            this.matches = null;
+            this.event = event;
+        }
+
+        /**
+         * Pattern entry together with the files matched by it.
+         */
+        PendingVerification(Entry entry, List<PendingVerification> matches)
         {
-            if (variables.containsKey(matcher.group(1)))
+            this.entry = entry;
+            this.found = true;
+            this.digests = null;
+            this.nestedArchive = null;
+            this.matches = matches;
+            this.event = null;
+        }
+
+        /**
+         * Cancel the checksums of the file and of the files matched by a pattern entry.
+         */
+        void cancel()
+        {
+            if (digests != null)
             {
-                matcher.appendReplacement(buffer, variables.get(matcher.group(1)));
+                digests.cancel(false);
             }
-            else
+            if (nestedArchive != null)
             {
-                logger.warn("Variable '" + matcher.group(1) + "' is defined but could not resolved by the given variables.");
+                nestedArchive.cancel(false);
+            }
+            if (matches != null)
+            {
+                for (PendingVerification match : matches)
+                {
+                    match.cancel();
+                }
             }
         }
-        matcher.appendTail(buffer);
-        return buffer.toString();
     }
 
-    private String getFileChecksum(File file) throws IOException, NoSuchAlgorithmException
+    /**
+     * Failed results of a verification counted incrementally, the limit is never reached without a maximum.
+     */
+    private static class FailureLimit
     {
-        return DigestUtils.md5Hex(new FileInputStream(file));
+        private final int maxFailures;
+
+        private int failures;
+
+        private int countedResults;
+
+        FailureLimit(int maxFailures)
+        {
+            this.maxFailures = maxFailures;
+        }
+
+        boolean isReached(List<ResultEntry> verificationResults)
+        {
+            if (maxFailures <= 0)
+            {
+                return false;
+            }
+            ListIterator<ResultEntry> results = verificationResults.listIterator(countedResults);
+            while (results.hasNext())
+            {
+                if (VerificationStatus.FAILED.name().equals(results.next().getStatus()))
+                {
+                    failures++;
+                }
+                countedResults++;
+            }
+            return failures >= maxFailures;
+        }
+
+        /**
+         * Whether the given number of failures, known before the files are verified, already reaches the limit.
+         */
+        boolean isReached(int knownFailures)
+        {
+            return maxFailures > 0 && knownFailures >= maxFailures;
+        }
     }
 
 }
@@ -0,0 +1,313 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.dataliquid.maven.distribution.verifier.domain.DigestAlgorithm;
+import com.dataliquid.maven.distribution.verifier.domain.Entry;
+import com.dataliquid.maven.distribution.verifier.domain.PatternSyntax;
+import com.dataliquid.maven.distribution.verifier.domain.WhitelistIndex;
+
+/**
+ * Compiles a whitelist together with the resolved properties into a compact binary index file, which is memory mapped
+ * by later runs as long as the whitelist and the properties are unchanged.
+ * <p>
+ * The index stores the resolved entry paths in whitelist order, their digests as raw bytes, the syntax and occurrence
+ * limits of pattern entries, the entries of nested archives and the exclude rules. It is keyed by the
+ * absolute whitelist path, its size and modification time and the resolved properties.
+ */
+public class WhitelistIndexCache
+{
+    private static final int MAGIC = 0x44565749;
+
+    private static final int VERSION = 5;
+
+    private static final String INDEX_EXTENSION = ".idx";
+
+    private static final int NULL_LENGTH = -1;
+
+    private static final byte RAW_DIGEST = 0;
+
+    private static final byte TEXT_DIGEST = 1;
+
+    private static final byte NO_PATTERN = -1;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final File directory;
+
+    public WhitelistIndexCache(File directory)
+    {
+        this.directory = directory;
+    }
+
+    /**
+     * Load the compiled index of the whitelist, compiling it with the given loader if it is missing or outdated.
+     */
+    public WhitelistIndex load(File whitelist, Map<String, String> properties, WhitelistLoader whitelistLoader) throws Exception
+    {
+        String key = createKey(whitelist, properties);
+        File indexFile = new File(directory, createPrefix(whitelist) + DigestUtils.sha256Hex(key).substring(0, 16) + INDEX_EXTENSION);
+
+        if (indexFile.isFile())
+        {
+            try
+            {
+                WhitelistIndex whitelistIndex = read(indexFile, key);
+                if (whitelistIndex != null)
+                {
+                    logger.info("Compiled whitelist index loaded from " + indexFile);
+                    return whitelistIndex;
+                }
+            }
+            catch (IOException | RuntimeException e)
+            {
+                logger.warn("Compiled whitelist index " + indexFile + " is not readable and will be recompiled: " + e.getMessage());
+            }
+        }
+
+        WhitelistIndex whitelistIndex = whitelistLoader.load(whitelist, properties);
+        try
+        {
+            write(indexFile, key, whitelistIndex);
+            deleteOutdatedIndexFiles(whitelist, indexFile);
+            logger.info("Compiled whitelist index written to " + indexFile);
+        }
+        catch (IOException e)
+        {
+            logger.warn("Compiled whitelist index " + indexFile + " could not be written: " + e.getMessage());
+        }
+        return whitelistIndex;
+    }
+
+    /**
+     * Prefix of all index files of the whitelist, the hash of its absolute path separates same named whitelists of
+     * different modules sharing the index directory.
+     */
+    private static String createPrefix(File whitelist)
+    {
+        return whitelist.getName() + "-" + DigestUtils.sha256Hex(whitelist.getAbsolutePath()).substring(0, 16) + "-";
+    }
+
+    private String createKey(File whitelist, Map<String, String> properties)
+    {
+        StringBuilder key = new StringBuilder();
+        key.append(whitelist.getAbsolutePath()).append('\n');
+        key.append(whitelist.length()).append('\n');
+        key.append(whitelist.lastModified()).append('\n');
+        if (properties != null)
+        {
+            for (Map.Entry<String, String> property : new TreeMap<>(properties).entrySet())
+            {
+                key.append(property.getKey()).append('=').append(property.getValue()).append('\n');
+            }
+        }
+        return key.toString();
+    }
+
+    private WhitelistIndex read(File indexFile, String key) throws IOException
+    {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ))
+        {
+            buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || !key.equals(readString(buffer)))
+        {
+            return null;
+        }
+
+        int entryCount = buffer.getInt();
+        WhitelistIndex whitelistIndex = new WhitelistIndex();
+        for (int i = 0; i < entryCount; i++)
+        {
+            whitelistIndex.addEntry(readEntry(buffer));
+        }
+        int excludeCount = buffer.getInt();
+        for (int i = 0; i < excludeCount; i++)
+        {
+            whitelistIndex.addExclude(readEntry(buffer));
+        }
+        return whitelistIndex;
+    }
+
+    private void write(File indexFile, String key, WhitelistIndex whitelistIndex) throws IOException
+    {
+        FileUtils.forceMkdir(directory);
+        File temporaryFile = File.createTempFile(indexFile.getName(), ".tmp", directory);
+        try
+        {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile.toPath()))))
+            {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                writeString(output, key);
+                output.writeInt(whitelistIndex.size());
+                for (Entry entry : whitelistIndex.getEntries())
+                {
+                    writeEntry(output, entry);
+                }
+                output.writeInt(whitelistIndex.getExcludes().size());
+                for (Entry exclude : whitelistIndex.getExcludes())
+                {
+                    writeEntry(output, exclude);
+                }
+            }
+            Files.move(temporaryFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally
+        {
+            Files.deleteIfExists(temporaryFile.toPath());
+        }
+    }
+
+    private static Entry readEntry(ByteBuffer buffer)
+    {
+        DigestAlgorithm[] algorithms = DigestAlgorithm.values();
+        Entry entry = new Entry();
+        entry.setPath(readString(buffer));
+        byte patternSyntax = buffer.get();
+        if (patternSyntax != NO_PATTERN)
+        {
+            entry.setPatternSyntax(PatternSyntax.values()[patternSyntax]);
+            entry.setMinOccurs(buffer.getInt());
+            entry.setMaxOccurs(buffer.getInt());
+        }
+        int digestCount = buffer.get();
+        for (int i = 0; i < digestCount; i++)
+        {
+            DigestAlgorithm algorithm = algorithms[buffer.get()];
+            if (buffer.get() == RAW_DIGEST)
+            {
+                byte[] digest = new byte[buffer.get()];
+                buffer.get(digest);
+                entry.setDigest(algorithm, digest);
+            }
+            else
+            {
+                entry.setDigest(algorithm, readString(buffer));
+            }
+        }
+        int childCount = buffer.getInt();
+        for (int i = 0; i < childCount; i++)
+        {
+            entry.addChild(readEntry(buffer));
+        }
+        return entry;
+    }
+
+    private static void writeEntry(DataOutputStream output, Entry entry) throws IOException
+    {
+        writeString(output, entry.getPath());
+        if (entry.isPattern())
+        {
+            output.writeByte(entry.getPatternSyntax().ordinal());
+            output.writeInt(entry.getMinOccurs());
+            output.writeInt(entry.getMaxOccurs());
+        }
+        else
+        {
+            output.writeByte(NO_PATTERN);
+        }
+        output.writeByte(entry.getDigests().size());
+        for (Map.Entry<DigestAlgorithm, String> digest : entry.getDigests().entrySet())
+        {
+            DigestAlgorithm algorithm = digest.getKey();
+            byte[] decodedDigest = entry.getDecodedDigest(algorithm);
+            output.writeByte(algorithm.ordinal());
+            // digests which do not round trip through their raw bytes, e.g. upper case hex, are kept as text
+            if (decodedDigest != null && Hex.encodeHexString(decodedDigest).equals(digest.getValue()))
+            {
+                output.writeByte(RAW_DIGEST);
+                output.writeByte(decodedDigest.length);
+                output.write(decodedDigest);
+            }
+            else
+            {
+                output.writeByte(TEXT_DIGEST);
+                writeString(output, digest.getValue());
+            }
+        }
+        output.writeInt(entry.getChildren().size());
+        for (Entry child : entry.getChildren())
+        {
+            writeEntry(output, child);
+        }
+    }
+
+    private void deleteOutdatedIndexFiles(File whitelist, File indexFile)
+    {
+        String prefix = createPrefix(whitelist);
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(prefix) && name.endsWith(INDEX_EXTENSION));
+        if (files != null)
+        {
+            for (File file : files)
+            {
+                if (!file.equals(indexFile) && !file.delete())
+                {
+                    logger.debug("Outdated whitelist index " + file + " could not be deleted");
+                }
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException
+    {
+        if (value == null)
+        {
+            output.writeInt(NULL_LENGTH);
+        }
+        else
+        {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer)
+    {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH)
+        {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.service;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+
+import org.dom4j.Document;
+import org.dom4j.Element;
+import org.dom4j.Node;
+import org.dom4j.io.SAXReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.dataliquid.maven.distribution.verifier.domain.DigestAlgorithm;
+import com.dataliquid.maven.distribution.verifier.domain.Entry;
+import com.dataliquid.maven.distribution.verifier.domain.PatternSyntax;
+import com.dataliquid.maven.distribution.verifier.domain.WhitelistIndex;
+import com.dataliquid.maven.distribution.verifier.domain.WhitelistParser;
+
+/**
+ * Loads the entries of a whitelist file, resolving <code>${variable}</code> references within the entry paths. Entries
+ * may contain the entries of a nested archive. Instead of a <code>path</code> an entry may define a glob
+ * <code>pattern</code> or a <code>regex</code> matching several files, limited by <code>minOccurs</code> and
+ * <code>maxOccurs</code>. <code>exclude</code> elements define files which are skipped by the verification.
+ */
+public class WhitelistLoader
+{
+    private static final String WHITELIST_ELEMENT = "whitelist";
+
+    private static final String ENTRY_ELEMENT = "entry";
+
+    private static final String EXCLUDE_ELEMENT = "exclude";
+
+    private static final String PATH_ATTRIBUTE = "path";
+
+    private static final String PATTERN_ATTRIBUTE = "pattern";
+
+    private static final String REGEX_ATTRIBUTE = "regex";
+
+    private static final String MIN_OCCURS_ATTRIBUTE = "minOccurs";
+
+    private static final String MAX_OCCURS_ATTRIBUTE = "maxOccurs";
+
+    private static final String UNBOUNDED = "unbounded";
+
+    private static final String VARIABLE_START = "${";
+
+    private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\$\\{(.*?)\\}");
+
+    /**
+     * Marks open elements which are no whitelist entry.
+     */
+    private static final Entry NO_ENTRY = new Entry();
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private WhitelistParser whitelistParser = WhitelistParser.STREAM;
+
+    public WhitelistIndex load(File whitelist, Map<String, String> properties) throws Exception
+    {
+        if (whitelistParser == WhitelistParser.DOM)
+        {
+            Document document = new SAXReader().read(whitelist);
+            WhitelistIndex whitelistIndex = new WhitelistIndex(readEntries(document, properties));
+            for (Node node : document.selectNodes("//whitelist/exclude"))
+            {
+                whitelistIndex.addExclude(readExclude(((Element) node)::attributeValue, properties));
+            }
+            return whitelistIndex;
+        }
+        WhitelistIndex whitelistIndex = new WhitelistIndex();
+        loadStream(whitelist, properties, whitelistIndex);
+        return whitelistIndex;
+    }
+
+    /**
+     * Pull-parse the whitelist, every <code>entry</code> element of a <code>whitelist</code> element is added to the
+     * index as soon as it is read. <code>entry</code> elements within an entry describe the content of a nested
+     * archive.
+     */
+    private void loadStream(File whitelist, Map<String, String> properties, WhitelistIndex whitelistIndex) throws Exception
+    {
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(whitelist.toPath())))
+        {
+            XMLStreamReader reader = XMLInputFactory.newFactory().createXMLStreamReader(inputStream);
+            try
+            {
+                Deque<String> openElements = new ArrayDeque<>();
+                Deque<Entry> openEntries = new ArrayDeque<>();
+                while (reader.hasNext())
+                {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT)
+                    {
+                        String name = isWithoutNamespace(reader) ? reader.getLocalName() : "";
+                        Entry entry = NO_ENTRY;
+                        if (ENTRY_ELEMENT.equals(name) && WHITELIST_ELEMENT.equals(openElements.peek()))
+                        {
+                            entry = readEntry(reader, properties);
+                            whitelistIndex.addEntry(entry);
+                        }
+                        else if (EXCLUDE_ELEMENT.equals(name) && WHITELIST_ELEMENT.equals(openElements.peek()))
+                        {
+                            whitelistIndex.addExclude(readExclude(attribute -> reader.getAttributeValue(null, attribute), properties));
+                        }
+                        else if (ENTRY_ELEMENT.equals(name) && !openEntries.isEmpty() && openEntries.peek() != NO_ENTRY)
+                        {
+                            entry = readEntry(reader, properties);
+                            openEntries.peek().addChild(entry);
+                        }
+                        openElements.push(name);
+                        openEntries.push(entry);
+                    }
+                    else if (event == XMLStreamConstants.END_ELEMENT)
+                    {
+                        openElements.pop();
+                        openEntries.pop();
+                    }
+                }
+            }
+            finally
+            {
+                reader.close();
+            }
+        }
+    }
+
+    private List<Entry> readEntries(Document document, Map<String, String> properties)
+    {
+        List<Entry> entries = new ArrayList<Entry>();
+        List<Node> nodes = document.selectNodes("//whitelist/entry");
+        for (Node node : nodes)
+        {
+            if (node.getNodeType() == Node.ELEMENT_NODE)
+            {
+                entries.add(readEntry((Element) node, properties));
+            }
+        }
+
+        return entries;
+    }
+
+    private Entry readEntry(Element element, Map<String, String> properties)
+    {
+        Entry entry = readEntry(element::attributeValue, properties);
+        for (Element child : element.elements(ENTRY_ELEMENT))
+        {
+            entry.addChild(readEntry(child, properties));
+        }
+        return entry;
+    }
+
+    private Entry readEntry(XMLStreamReader reader, Map<String, String> properties)
+    {
+        return readEntry(name -> reader.getAttributeValue(null, name), properties);
+    }
+
+    private Entry readEntry(UnaryOperator<String> attributes, Map<String, String> properties)
+    {
+        Entry entry = new Entry();
+        if (attributes.apply(PATTERN_ATTRIBUTE) != null)
+        {
+            entry.setPatternSyntax(PatternSyntax.GLOB);
+            entry.setPath(evaluateString(attributes.apply(PATTERN_ATTRIBUTE), properties, false));
+        }
+        else if (attributes.apply(REGEX_ATTRIBUTE) != null)
+        {
+            entry.setPatternSyntax(PatternSyntax.REGEX);
+            entry.setPath(evaluateString(attributes.apply(REGEX_ATTRIBUTE), properties, true));
+        }
+        else
+        {
+            entry.setPath(evaluateString(attributes.apply(PATH_ATTRIBUTE), properties, false));
+        }
+        String minOccurs = attributes.apply(MIN_OCCURS_ATTRIBUTE);
+        if (minOccurs != null)
+        {
+            entry.setMinOccurs(Integer.parseInt(minOccurs.trim()));
+        }
+        String maxOccurs = attributes.apply(MAX_OCCURS_ATTRIBUTE);
+        if (maxOccurs != null)
+        {
+            entry.setMaxOccurs(UNBOUNDED.equals(maxOccurs.trim()) ? Entry.UNBOUNDED : Integer.parseInt(maxOccurs.trim()));
+        }
+        for (DigestAlgorithm algorithm : DigestAlgorithm.values())
+        {
+            entry.setDigest(algorithm, attributes.apply(algorithm.getAttributeName()));
+        }
+        if (logger.isDebugEnabled())
+        {
+            logger.debug("<entry path=\"" + entry.getPath() + "\" md5=\"" + entry.getMd5() + "\"");
+        }
+        return entry;
+    }
+
+    /**
+     * Read an exclude rule, a <code>path</code> is treated like a glob <code>pattern</code>.
+     */
+    private Entry readExclude(UnaryOperator<String> attributes, Map<String, String> properties)
+    {
+        Entry exclude = readEntry(attributes, properties);
+        if (!exclude.isPattern())
+        {
+            exclude.setPatternSyntax(PatternSyntax.GLOB);
+        }
+        if (exclude.getPath() == null)
+        {
+            throw new IllegalArgumentException("exclude element requires a pattern or regex attribute");
+        }
+        return exclude;
+    }
+
+    private static boolean isWithoutNamespace(XMLStreamReader reader)
+    {
+        String namespaceUri = reader.getNamespaceURI();
+        return namespaceUri == null || namespaceUri.isEmpty();
+    }
+
+    /**
+     * Evaluate variable within given string value
+     * 
+     * @param value
+     *            lorem ${var} elit
+     * @param variables
+     *            Map<String, String> vars; vars.put("var", "ipsum");
+     * @param quote
+     *            quote the variable values for the use within a regular expression
+     * @return
+     */
+    private String evaluateString(String value, Map<String, String> variables, boolean quote)
+    {
+        if (value == null || !value.contains(VARIABLE_START))
+        {
+            return value;
+        }
+        final Matcher matcher = VARIABLE_PATTERN.matcher(value);
+        final StringBuffer buffer = new StringBuffer(value.length());
+        while (matcher.find())
+        {
+            if (variables.containsKey(matcher.group(1)))
+            {
+                String variable = variables.get(matcher.group(1));
+                matcher.appendReplacement(buffer, quote ? Matcher.quoteReplacement(Pattern.quote(variable)) : variable);
+            }
+            else
+            {
+                logger.warn("Variable '" + matcher.group(1) + "' is defined but could not resolved by the given variables.");
+            }
+        }
+        matcher.appendTail(buffer);
+        return buffer.toString();
+    }
+
+    public WhitelistParser getWhitelistParser()
+    {
+        return whitelistParser;
+    }
+
+    public void setWhitelistParser(WhitelistParser whitelistParser)
+    {
+        this.whitelistParser = whitelistParser;
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.io.FilenameUtils;
+
+/**
+ * Distribution content read directly from a zip based archive (zip, jar, war, ear). Entries are inflated on demand,
+ * nothing is written to disk.
+ */
+public class ZipArchiveContent implements DistributionContent
+{
+    private static final String SEPARATOR = "/";
+
+    private final ZipFile zipFile;
+
+    private final Map<String, ZipEntry> entries = new LinkedHashMap<>();
+
+    public ZipArchiveContent(File distributionArchiveFile) throws IOException
+    {
+        this.zipFile = new ZipFile(distributionArchiveFile);
+        Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+        while (zipEntries.hasMoreElements())
+        {
+            ZipEntry zipEntry = zipEntries.nextElement();
+            entries.put(normalize(zipEntry.getName()), zipEntry);
+        }
+    }
+
+    @Override
+    public boolean exists(String path)
+    {
+        return entries.containsKey(normalize(path));
+    }
+
+    @Override
+    public InputStream openStream(String path) throws IOException
+    {
+        return zipFile.getInputStream(getFileEntry(path));
+    }
+
+    @Override
+    public ReadableByteChannel openChannel(String path) throws IOException
+    {
+        return Channels.newChannel(openStream(path));
+    }
+
+    @Override
+    public List<ByteBuffer> map(String path) throws IOException
+    {
+        return null;
+    }
+
+    @Override
+    public List<String> listFiles() throws IOException
+    {
+        List<String> files = new ArrayList<>();
+        for (Map.Entry<String, ZipEntry> entry : entries.entrySet())
+        {
+            if (!entry.getValue().isDirectory())
+            {
+                files.add(entry.getKey());
+            }
+        }
+        return files;
+    }
+
+    @Override
+    public long getSize(String path) throws IOException
+    {
+        return getFileEntry(path).getSize();
+    }
+
+    @Override
+    public String getCompressionMethod(String path) throws IOException
+    {
+        int method = getFileEntry(path).getMethod();
+        switch (method)
+        {
+            case ZipEntry.STORED:
+                return "STORED";
+            case ZipEntry.DEFLATED:
+                return "DEFLATED";
+            default:
+                return String.valueOf(method);
+        }
+    }
+
+    @Override
+    public long getStoredCrc32(String path) throws IOException
+    {
+        return getFileEntry(path).getCrc();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        zipFile.close();
+    }
+
+    private ZipEntry getFileEntry(String path) throws IOException
+    {
+        ZipEntry zipEntry = entries.get(normalize(path));
+        if (zipEntry == null || zipEntry.isDirectory())
+        {
+            throw new IOException("Entry " + path + " not found in " + zipFile.getName());
+        }
+        return zipEntry;
+    }
+
+    static String normalize(String name)
+    {
+        String path = name.startsWith(SEPARATOR) ? name : SEPARATOR.concat(name);
+        String normalized = FilenameUtils.normalize(path, true);
+        if (normalized == null)
+        {
+            return path;
+        }
+        if (normalized.length() > 1 && normalized.endsWith(SEPARATOR))
+        {
+            return normalized.substring(0, normalized.length() - 1);
+        }
+        return normalized;
+    }
+
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal reader of the central directory of a zip archive, including the ZIP64 extensions for archives and entries
+ * above 4 GB. Only the fields needed to locate the entry data within the archive are read.
+ */
+final class ZipCentralDirectory
+{
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+
+    private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+
+    private static final int MAX_COMMENT_SIZE = 0xffff;
+
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06064b50;
+
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_SIZE = 56;
+
+    private static final int CENTRAL_FILE_HEADER_SIGNATURE = 0x02014b50;
+
+    private static final int CENTRAL_FILE_HEADER_SIZE = 46;
+
+    private static final int LOCAL_FILE_HEADER_SIGNATURE = 0x04034b50;
+
+    private static final int LOCAL_FILE_HEADER_SIZE = 30;
+
+    private static final int ZIP64_EXTRA_FIELD_ID = 0x0001;
+
+    private static final long ZIP64_MAGIC = 0xffffffffL;
+
+    private static final int ZIP64_MAGIC_COUNT = 0xffff;
+
+    private static final int ENCRYPTED_FLAG = 0x1;
+
+    private ZipCentralDirectory()
+    {
+    }
+
+    /**
+     * @return all records of the central directory in archive order
+     */
+    static List<Record> read(FileChannel channel) throws IOException
+    {
+        long endOfCentralDirectoryOffset = findEndOfCentralDirectory(channel);
+        ByteBuffer endOfCentralDirectory = read(channel, endOfCentralDirectoryOffset, END_OF_CENTRAL_DIRECTORY_SIZE);
+        long recordCount = Short.toUnsignedInt(endOfCentralDirectory.getShort(10));
+        long size = Integer.toUnsignedLong(endOfCentralDirectory.getInt(12));
+        long offset = Integer.toUnsignedLong(endOfCentralDirectory.getInt(16));
+
+        if (recordCount == ZIP64_MAGIC_COUNT || size == ZIP64_MAGIC || offset == ZIP64_MAGIC)
+        {
+            long locatorOffset = endOfCentralDirectoryOffset - ZIP64_LOCATOR_SIZE;
+            ByteBuffer locator = locatorOffset >= 0 ? read(channel, locatorOffset, ZIP64_LOCATOR_SIZE) : null;
+            if (locator != null && locator.getInt(0) == ZIP64_LOCATOR_SIGNATURE)
+            {
+                ByteBuffer zip64EndOfCentralDirectory = read(channel, locator.getLong(8), ZIP64_END_OF_CENTRAL_DIRECTORY_SIZE);
+                checkSignature(zip64EndOfCentralDirectory, ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE, "ZIP64 end of central directory");
+                recordCount = zip64EndOfCentralDirectory.getLong(32);
+                size = zip64EndOfCentralDirectory.getLong(40);
+                offset = zip64EndOfCentralDirectory.getLong(48);
+            }
+        }
+        if (size > Integer.MAX_VALUE)
+        {
+            throw new IOException("Central directory of " + size + " bytes is not supported");
+        }
+
+        ByteBuffer centralDirectory = read(channel, offset, (int) size);
+        List<Record> records = new ArrayList<>((int) Math.min(recordCount, Integer.MAX_VALUE));
+        while (centralDirectory.remaining() >= CENTRAL_FILE_HEADER_SIZE)
+        {
+            records.add(readRecord(centralDirectory));
+        }
+        return records;
+    }
+
+    /**
+     * @return offset of the entry data following the local file header of the given record
+     */
+    static long getDataOffset(FileChannel channel, Record record) throws IOException
+    {
+        ByteBuffer localFileHeader = read(channel, record.localHeaderOffset, LOCAL_FILE_HEADER_SIZE);
+        checkSignature(localFileHeader, LOCAL_FILE_HEADER_SIGNATURE, "local file header of " + record.name);
+        int nameLength = Short.toUnsignedInt(localFileHeader.getShort(26));
+        int extraLength = Short.toUnsignedInt(localFileHeader.getShort(28));
+        return record.localHeaderOffset + LOCAL_FILE_HEADER_SIZE + nameLength + extraLength;
+    }
+
+    private static Record readRecord(ByteBuffer centralDirectory) throws IOException
+    {
+        int start = centralDirectory.position();
+        checkSignature(centralDirectory, CENTRAL_FILE_HEADER_SIGNATURE, "central file header");
+        int flags = Short.toUnsignedInt(centralDirectory.getShort(start + 8));
+        int method = Short.toUnsignedInt(centralDirectory.getShort(start + 10));
+        long compressedSize = Integer.toUnsignedLong(centralDirectory.getInt(start + 20));
+        long size = Integer.toUnsignedLong(centralDirectory.getInt(start + 24));
+        int nameLength = Short.toUnsignedInt(centralDirectory.getShort(start + 28));
+        int extraLength = Short.toUnsignedInt(centralDirectory.getShort(start + 30));
+        int commentLength = Short.toUnsignedInt(centralDirectory.getShort(start + 32));
+        long localHeaderOffset = Integer.toUnsignedLong(centralDirectory.getInt(start + 42));
+
+        byte[] name = new byte[nameLength];
+        centralDirectory.position(start + CENTRAL_FILE_HEADER_SIZE);
+        centralDirectory.get(name);
+
+        int extraEnd = centralDirectory.position() + extraLength;
+        while (centralDirectory.position() + 4 <= extraEnd)
+        {
+            int id = Short.toUnsignedInt(centralDirectory.getShort());
+            int length = Short.toUnsignedInt(centralDirectory.getShort());
+            int dataEnd = centralDirectory.position() + length;
+            if (id == ZIP64_EXTRA_FIELD_ID)
+            {
+                if (size == ZIP64_MAGIC && centralDirectory.position() + 8 <= dataEnd)
+                {
+                    size = centralDirectory.getLong();
+                }
+                if (compressedSize == ZIP64_MAGIC && centralDirectory.position() + 8 <= dataEnd)
+                {
+                    compressedSize = centralDirectory.getLong();
+                }
+                if (localHeaderOffset == ZIP64_MAGIC && centralDirectory.position() + 8 <= dataEnd)
+                {
+                    localHeaderOffset = centralDirectory.getLong();
+                }
+            }
+            centralDirectory.position(dataEnd);
+        }
+        centralDirectory.position(extraEnd + commentLength);
+
+        return new Record(new String(name, StandardCharsets.UTF_8), method, (flags & ENCRYPTED_FLAG) != 0, compressedSize, size, localHeaderOffset);
+    }
+
+    private static long findEndOfCentralDirectory(FileChannel channel) throws IOException
+    {
+        long fileSize = channel.size();
+        int tailSize = (int) Math.min(fileSize, END_OF_CENTRAL_DIRECTORY_SIZE + MAX_COMMENT_SIZE);
+        long tailOffset = fileSize - tailSize;
+        ByteBuffer tail = read(channel, tailOffset, tailSize);
+        for (int position = tailSize - END_OF_CENTRAL_DIRECTORY_SIZE; position >= 0; position--)
+        {
+            if (tail.getInt(position) == END_OF_CENTRAL_DIRECTORY_SIGNATURE)
+            {
+                return tailOffset + position;
+            }
+        }
+        throw new IOException("End of central directory not found, the file is not a zip archive");
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining())
+        {
+            if (channel.read(buffer, position + buffer.position()) == -1)
+            {
+                throw new IOException("Unexpected end of zip archive at offset " + (position + buffer.position()));
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void checkSignature(ByteBuffer buffer, int signature, String structure) throws IOException
+    {
+        if (buffer.getInt(buffer.position()) != signature)
+        {
+            throw new IOException("Invalid signature of " + structure);
+        }
+    }
+
+    /**
+     * Central directory record of a single entry.
+     */
+    static final class Record
+    {
+        private final String name;
+
+        private final int method;
+
+        private final boolean encrypted;
+
+        private final long compressedSize;
+
+        private final long size;
+
+        private final long localHeaderOffset;
+
+        Record(String name, int method, boolean encrypted, long compressedSize, long size, long localHeaderOffset)
+        {
+            this.name = name;
+            this.method = method;
+            this.encrypted = encrypted;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+
+        String getName()
+        {
+            return name;
+        }
+
+        int getMethod()
+        {
+            return method;
+        }
+
+        boolean isEncrypted()
+        {
+            return encrypted;
+        }
+
+        long getCompressedSize()
+        {
+            return compressedSize;
+        }
+
+        long getSize()
+        {
+            return size;
+        }
+
+        long getLocalHeaderOffset()
+        {
+            return localHeaderOffset;
+        }
+    }
+
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.mojo;
+
+import static org.hamcrest.CoreMatchers.allOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasProperty;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.dataliquid.maven.distribution.verifier.domain.Verification;
+
+public class VerifyAggregateMojoTest
+{
+    private VerifyAggregateMojo verifyAggregateMojo;
+
+    private List<MavenProject> reactorProjects;
+
+    @BeforeEach
+    public void setUp()
+    {
+        reactorProjects = new ArrayList<>();
+        verifyAggregateMojo = new VerifyAggregateMojo();
+        verifyAggregateMojo.setReactorProjects(reactorProjects);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldPreferExecutionConfigurationOverPluginConfiguration()
+    {
+        // given
+        MavenProject module = createProject("module", "jar");
+        Plugin plugin = addPlugin(module, createConfiguration("distributionArchiveFile", "target/plugin.zip", "whitelist", "plugin-whitelist.xml"));
+        plugin.addExecution(createExecution("generate", createConfiguration("distributionArchiveFile", "target/generate.zip")));
+        plugin.addExecution(createExecution("verify", createConfiguration("distributionArchiveFile", "target/execution.zip")));
+
+        // when
+        List<Verification> verifications = verifyAggregateMojo.collectVerifications();
+
+        // then
+        assertThat(verifications, contains(allOf(
+                hasProperty("distributionArchiveFile", is(new File(module.getBasedir(), "target/execution.zip"))),
+                hasProperty("whitelist", is(new File(module.getBasedir(), "plugin-whitelist.xml"))))));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldSkipPomModulesWithoutDistributionArchiveFile()
+    {
+        // given
+        MavenProject parent = createProject("parent", "pom");
+        addPlugin(parent, createConfiguration("whitelist", "whitelist.xml"));
+        MavenProject assembly = createProject("assembly", "pom");
+        addPlugin(assembly, createConfiguration("distributionArchiveFile", "target/assembly.zip"));
+        createProject("library", "jar");
+
+        // when
+        List<Verification> verifications = verifyAggregateMojo.collectVerifications();
+
+        // then
+        assertThat(verifications, contains(
+                hasProperty("distributionArchiveFile", is(new File(assembly.getBasedir(), "target/assembly.zip")))));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldFallBackToProjectPropertiesPerModule()
+    {
+        // given
+        MavenProject configured = createProject("configured", "jar");
+        Xpp3Dom configuration = createConfiguration("distributionArchiveFile", "target/configured.zip");
+        Xpp3Dom properties = new Xpp3Dom("properties");
+        properties.addChild(createElement("release", "1.0"));
+        configuration.addChild(properties);
+        addPlugin(configured, configuration);
+        MavenProject unconfigured = createProject("unconfigured", "jar");
+        addPlugin(unconfigured, createConfiguration("distributionArchiveFile", "target/unconfigured.zip"));
+
+        Map<String, String> configuredProperties = new LinkedHashMap<>();
+        configuredProperties.put("release", "1.0");
+        Map<String, String> projectProperties = new LinkedHashMap<>();
+        projectProperties.put("project.groupId", "com.dataliquid.sample");
+        projectProperties.put("project.artifactId", "unconfigured");
+        projectProperties.put("project.version", "1.0.0");
+
+        // when
+        List<Verification> verifications = verifyAggregateMojo.collectVerifications();
+
+        // then
+        assertThat(verifications, contains(
+                hasProperty("properties", is(configuredProperties)),
+                hasProperty("properties", is(projectProperties))));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldResolveRelativePathsAgainstModuleBasedir()
+    {
+        // given
+        File absoluteWhitelist = new File("src/main/resources/whitelist-linux.xml").getAbsoluteFile();
+        MavenProject linux = createProject("linux", "zip");
+        addPlugin(linux, createConfiguration("whitelist", absoluteWhitelist.getPath(), "reportFile", "target/report-linux.xml"));
+        MavenProject windows = createProject("windows", "zip");
+        addPlugin(windows, createConfiguration("distributionArchiveFile", "target/windows.zip"));
+
+        // when
+        List<Verification> verifications = verifyAggregateMojo.collectVerifications();
+
+        // then
+        assertThat(verifications, contains(
+                allOf(
+                    hasProperty("distributionArchiveFile", is(new File(new File(linux.getBasedir(), "target"), "linux-1.0.0.zip"))),
+                    hasProperty("whitelist", is(absoluteWhitelist)),
+                    hasProperty("reportFile", is(new File(linux.getBasedir(), "target/report-linux.xml").getPath()))),
+                allOf(
+                    hasProperty("distributionArchiveFile", is(new File(windows.getBasedir(), "target/windows.zip"))),
+                    hasProperty("whitelist", is(new File(windows.getBasedir(), "src/main/resources/whitelist.xml"))),
+                    hasProperty("reportFile", is(new File(new File(windows.getBasedir(), "target"), "report.xml").getPath())))));
+    }
+
+    private MavenProject createProject(String artifactId, String packaging)
+    {
+        File basedir = new File("target/reactor", artifactId).getAbsoluteFile();
+        MavenProject project = new MavenProject();
+        project.setGroupId("com.dataliquid.sample");
+        project.setArtifactId(artifactId);
+        project.setVersion("1.0.0");
+        project.setPackaging(packaging);
+        project.setFile(new File(basedir, "pom.xml"));
+        project.getBuild().setDirectory(new File(basedir, "target").getPath());
+        project.getBuild().setFinalName(artifactId + "-1.0.0");
+        reactorProjects.add(project);
+        return project;
+    }
+
+    private Plugin addPlugin(MavenProject project, Xpp3Dom configuration)
+    {
+        Plugin plugin = new Plugin();
+        plugin.setGroupId("com.dataliquid.maven");
+        plugin.setArtifactId("distribution-verifier-maven-plugin");
+        plugin.setConfiguration(configuration);
+        project.getBuild().addPlugin(plugin);
+        return plugin;
+    }
+
+    private PluginExecution createExecution(String goal, Xpp3Dom configuration)
+    {
+        PluginExecution execution = new PluginExecution();
+        execution.setId(goal);
+        execution.addGoal(goal);
+        execution.setConfiguration(configuration);
+        return execution;
+    }
+
+    private Xpp3Dom createConfiguration(String... values)
+    {
+        Xpp3Dom configuration = new Xpp3Dom("configuration");
+        for (int i = 0; i < values.length; i += 2)
+        {
+            configuration.addChild(createElement(values[i], values[i + 1]));
+        }
+        return configuration;
+    }
+
+    private Xpp3Dom createElement(String name, String value)
+    {
+        Xpp3Dom element = new Xpp3Dom(name);
+        element.setValue(value);
+        return element;
+    }
+
+}
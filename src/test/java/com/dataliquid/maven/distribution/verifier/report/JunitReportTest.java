@@ -21,11 +21,13 @@ import static org.xmlunit.matchers.CompareMatcher.isSimilarTo;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.dataliquid.maven.distribution.verifier.domain.DigestAlgorithm;
 import com.dataliquid.maven.distribution.verifier.domain.ResultEntry;
 
 public class JunitReportTest
@@ -176,6 +178,35 @@ public class JunitReportTest
 
     }
 
+    @Test
+    public void shouldReportTruncatedVerificationAsSkipped() throws Exception
+    {
+        // given
+        String expectedReport = "src/test/resources/truncated/report_junit.xml";
+        String report = "target/truncated-report.xml";
+
+        final List<ResultEntry> verificationResults = new ArrayList<>();
+
+        ResultEntry resultEntryA = new ResultEntry();
+        resultEntryA.setStatus("FAILED");
+        resultEntryA.setMessage("Defined file not found");
+        resultEntryA.setPath("/Sample.adoc");
+        resultEntryA.setMd5("193fa5e788a1800a760d1108051c7778");
+        verificationResults.add(resultEntryA);
+
+        ResultEntry resultEntryB = new ResultEntry();
+        resultEntryB.setStatus("TRUNCATED");
+        resultEntryB.setMessage("Verification truncated after 1 failures, 2 files not verified");
+        verificationResults.add(resultEntryB);
+
+        // when
+        reportService.generateReport(verificationResults, report);
+
+        // then
+        assertThat(new File(expectedReport), isSimilarTo(new File(report)).ignoreWhitespace().ignoreComments());
+
+    }
+
     @Test
     public void shouldVerifyInvalidDifferentMd5Checksum() throws Exception
     {
@@ -207,4 +238,38 @@ public class JunitReportTest
 
     }
 
+    @Test
+    public void shouldWriteEscapedPathsAsTestCaseNames() throws Exception
+    {
+        // given
+        String expectedReport = "src/test/resources/report-escaping/report_junit.xml";
+        String report = "target/report-escaping-report_junit.xml";
+
+        final List<ResultEntry> verificationResults = new ArrayList<>();
+
+        ResultEntry resultEntryA = new ResultEntry();
+        resultEntryA.setStatus("SUCCESS");
+        resultEntryA.setMessage("Validation passed successfully");
+        resultEntryA.setPath("/lib/sample & \"demo\" <1.0>.jar");
+        resultEntryA.setDigest(DigestAlgorithm.MD5, "4114b3e750902c5404ffe4864b3e11b8");
+        resultEntryA.setDigest(DigestAlgorithm.SHA256, "95a2f1edb08a76120b82cec7c93ca477618639f04beac7d2aeba2dc039d43715");
+        resultEntryA.setDigest(DigestAlgorithm.CRC32, "6daa2d2e");
+        resultEntryA.setVerifiedDigests(Arrays.asList(DigestAlgorithm.MD5, DigestAlgorithm.SHA256));
+        verificationResults.add(resultEntryA);
+
+        ResultEntry resultEntryB = new ResultEntry();
+        resultEntryB.setStatus("FAILED");
+        resultEntryB.setMessage("File is not defined in whitelist");
+        resultEntryB.setPath("/conf/it's <default>.properties");
+        resultEntryB.setMd5("0430eba9643b5e60e49c055eb16cbf7a");
+        verificationResults.add(resultEntryB);
+
+        // when
+        reportService.generateReport(verificationResults, report);
+
+        // then
+        assertThat(new File(expectedReport), isSimilarTo(new File(report)).ignoreWhitespace().ignoreComments());
+
+    }
+
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.report;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.dataliquid.maven.distribution.verifier.domain.PhaseMetrics;
+import com.dataliquid.maven.distribution.verifier.domain.RunMetrics;
+
+public class MetricsReportTest
+{
+    private MetricsReport reportService;
+
+    @BeforeEach
+    public void setUp()
+    {
+        reportService = new MetricsReport();
+    }
+
+    @Test
+    public void shouldWriteMetricsOfEveryPhase() throws Exception
+    {
+        // given
+        String report = "target/report-metrics.json";
+        RunMetrics metrics = new RunMetrics("verify", new File("target/sample \"1.0\".zip"));
+        metrics.setStatus("SUCCESS");
+        PhaseMetrics whitelist = metrics.phase(RunMetrics.WHITELIST);
+        whitelist.start();
+        whitelist.addEntries(2);
+        whitelist.addBytes(512);
+        whitelist.stop();
+        PhaseMetrics hashing = metrics.phase(RunMetrics.HASHING);
+        hashing.start();
+        hashing.addEntries(2);
+        hashing.addBytes(27);
+        hashing.stop();
+
+        // when
+        reportService.generateReport(metrics, report);
+
+        // then
+        String json = FileUtils.readFileToString(new File(report), StandardCharsets.UTF_8);
+        assertThat(json, containsString("\"goal\": \"verify\""));
+        assertThat(json, containsString("\"distributionArchive\": \"target" + File.separator.replace("\\", "\\\\") + "sample \\\"1.0\\\".zip\""));
+        assertThat(json, containsString("\"status\": \"SUCCESS\""));
+        assertThat(json, containsString("\"name\": \"whitelist\",\n      \"durationMillis\": "));
+        assertThat(json, containsString("\"bytes\": 512,\n      \"entries\": 2,"));
+        assertThat(json, containsString("\"name\": \"hashing\","));
+        assertThat(json, containsString("\"bytes\": 27,\n      \"entries\": 2,"));
+    }
+
+    @Test
+    public void shouldPlaceMetricsNextToReport()
+    {
+        // when
+        String metricsFile = MetricsReport.getMetricsFileName("target/report.xml");
+
+        // then
+        assertThat(metricsFile, is("target/report-metrics.json"));
+    }
+
+}
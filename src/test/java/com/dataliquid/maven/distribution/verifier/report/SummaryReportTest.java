@@ -0,0 +1,84 @@
+/*
+ * Copyright © 2019 dataliquid GmbH | www.dataliquid.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dataliquid.maven.distribution.verifier.report;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.xmlunit.matchers.CompareMatcher.isSimilarTo;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.dataliquid.maven.distribution.verifier.domain.ResultEntry;
+import com.dataliquid.maven.distribution.verifier.domain.Verification;
+import com.dataliquid.maven.distribution.verifier.domain.VerifierResult;
+
+public class SummaryReportTest
+{
+    private SummaryReport reportService;
+
+    @BeforeEach
+    public void setUp() throws IOException
+    {
+        reportService = new SummaryReport();
+    }
+
+    @Test
+    public void shouldSummarizeVerifications() throws Exception
+    {
+        // given
+        String expectedReport = "src/test/resources/summary/report-summary.xml";
+        String report = "target/report-summary.xml";
+
+        List<Verification> verifications = Arrays.asList(
+                new Verification(new File("target/sample-linux.zip"), new File("src/main/resources/whitelist-linux.xml"), "target/report-linux.xml"),
+                new Verification(new File("target/sample-windows.zip"), new File("src/main/resources/whitelist-windows.xml"), "target/report-windows.xml"));
+
+        List<ResultEntry> linuxResults = new ArrayList<>();
+        ResultEntry resultEntryA = new ResultEntry();
+        resultEntryA.setStatus("SUCCESS");
+        resultEntryA.setMessage("Validation passed successfully");
+        resultEntryA.setPath("/bin/sample.sh");
+        linuxResults.add(resultEntryA);
+
+        List<ResultEntry> windowsResults = new ArrayList<>();
+        ResultEntry resultEntryB = new ResultEntry();
+        resultEntryB.setStatus("SUCCESS");
+        resultEntryB.setMessage("Validation passed successfully");
+        resultEntryB.setPath("/bin/sample.bat");
+        windowsResults.add(resultEntryB);
+        ResultEntry resultEntryC = new ResultEntry();
+        resultEntryC.setStatus("FAILED");
+        resultEntryC.setMessage("Defined file not found");
+        resultEntryC.setPath("/bin/sample.exe");
+        windowsResults.add(resultEntryC);
+
+        List<VerifierResult> verifierResults = Arrays.asList(new VerifierResult(true, linuxResults), new VerifierResult(false, windowsResults));
+
+        // when
+        reportService.generateReport(verifications, verifierResults, report);
+
+        // then
+        assertThat(new File(expectedReport), isSimilarTo(new File(report)).ignoreWhitespace().ignoreComments());
+
+    }
+
+}
@@ -15,14 +15,21 @@
  */
 package com.dataliquid.maven.distribution.verifier.service;
 
+import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.xmlunit.matchers.CompareMatcher.isSimilarTo;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.EnumSet;
 
+import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.zeroturnaround.zip.ZipUtil;
+
+import com.dataliquid.maven.distribution.verifier.domain.ArchiveEngine;
+import com.dataliquid.maven.distribution.verifier.domain.DigestAlgorithm;
 
 public class GenerateServiceTest
 {
@@ -53,4 +60,125 @@ public class GenerateServiceTest
 
     }
 
+    @Test
+    public void shouldGenerateWhitelistInParallelWithStreamEngine() throws Exception
+    {
+        // given
+        File whitelist = new File(outputDirectory, "generate-whitelist-parallel/whitelist.tmpl.xml");
+        File expectedWhitelist = new File("src/test/resources/generate-whitelist/whitelist.tmpl.xml");
+        File distributionArchive = new File("src/test/resources/generate-whitelist/generate_whitelist.zip");
+        verifierService.setArchiveEngine(ArchiveEngine.STREAM);
+        verifierService.setThreads(4);
+
+        // when
+        verifierService.generate(distributionArchive, outputDirectory, whitelist);
+
+        // then
+        assertThat(expectedWhitelist, isSimilarTo(whitelist).ignoreWhitespace().ignoreComments());
+
+    }
+
+    @Test
+    public void shouldGenerateWhitelistWithZipFileSystemEngine() throws Exception
+    {
+        // given
+        File whitelist = new File(outputDirectory, "generate-whitelist-zipfs/whitelist.tmpl.xml");
+        File expectedWhitelist = new File("src/test/resources/generate-whitelist/whitelist.tmpl.xml");
+        File distributionArchive = new File("src/test/resources/generate-whitelist/generate_whitelist.zip");
+        verifierService.setArchiveEngine(ArchiveEngine.ZIPFS);
+
+        // when
+        verifierService.generate(distributionArchive, outputDirectory, whitelist);
+
+        // then
+        assertThat(expectedWhitelist, isSimilarTo(whitelist).ignoreWhitespace().ignoreComments());
+
+    }
+
+    @Test
+    public void shouldGenerateWhitelistFromDirectory() throws Exception
+    {
+        // given
+        File whitelist = new File(outputDirectory, "generate-whitelist-directory/whitelist.tmpl.xml");
+        File expectedWhitelist = new File("src/test/resources/generate-whitelist/whitelist.tmpl.xml");
+        File distributionDirectory = new File(outputDirectory, "directory-input/generate_whitelist");
+        FileUtils.deleteDirectory(distributionDirectory);
+        ZipUtil.unpack(new File("src/test/resources/generate-whitelist/generate_whitelist.zip"), distributionDirectory);
+
+        // when
+        verifierService.generate(distributionDirectory, outputDirectory, whitelist);
+
+        // then
+        assertThat(expectedWhitelist, isSimilarTo(whitelist).ignoreWhitespace().ignoreComments());
+        assertThat(distributionDirectory.isDirectory(), is(true));
+
+    }
+
+    @Test
+    public void shouldGenerateWhitelistWithCentralDirectoryEngine() throws Exception
+    {
+        // given
+        File whitelist = new File(outputDirectory, "generate-whitelist-crc32/whitelist.tmpl.xml");
+        File expectedWhitelist = new File("src/test/resources/generate-whitelist-crc32/whitelist.tmpl.xml");
+        File distributionArchive = new File("src/test/resources/generate-whitelist-crc32/generate_whitelist_crc32.zip");
+        verifierService.setArchiveEngine(ArchiveEngine.CENTRAL_DIRECTORY);
+
+        // when
+        verifierService.generate(distributionArchive, outputDirectory, whitelist);
+
+        // then
+        assertThat(expectedWhitelist, isSimilarTo(whitelist).ignoreWhitespace().ignoreComments());
+
+    }
+
+    @Test
+    public void shouldGenerateWhitelistWithMultipleDigests() throws Exception
+    {
+        // given
+        File whitelist = new File(outputDirectory, "generate-whitelist-multi-digest/whitelist.tmpl.xml");
+        File expectedWhitelist = new File("src/test/resources/generate-whitelist-multi-digest/whitelist.tmpl.xml");
+        File distributionArchive = new File("src/test/resources/generate-whitelist-multi-digest/generate_whitelist_multi_digest.zip");
+        verifierService.setDigestAlgorithms(EnumSet.of(DigestAlgorithm.SHA256, DigestAlgorithm.CRC32C));
+
+        // when
+        verifierService.generate(distributionArchive, outputDirectory, whitelist);
+
+        // then
+        assertThat(expectedWhitelist, isSimilarTo(whitelist).ignoreWhitespace().ignoreComments());
+
+    }
+
+    @Test
+    public void shouldGenerateWhitelistWithNestedArchives() throws Exception
+    {
+        // given
+        File whitelist = new File(outputDirectory, "generate-whitelist-nested/whitelist.tmpl.xml");
+        File expectedWhitelist = new File("src/test/resources/generate-whitelist-nested/whitelist.tmpl.xml");
+        File distributionArchive = new File("src/test/resources/generate-whitelist-nested/generate_whitelist_nested.zip");
+        verifierService.setNestedArchiveDepth(1);
+
+        // when
+        verifierService.generate(distributionArchive, outputDirectory, whitelist);
+
+        // then
+        assertThat(expectedWhitelist, isSimilarTo(whitelist).ignoreWhitespace().ignoreComments());
+
+    }
+
+    @Test
+    public void shouldGenerateWhitelistFromTarGzArchive() throws Exception
+    {
+        // given
+        File whitelist = new File(outputDirectory, "generate-whitelist-tar/whitelist.tmpl.xml");
+        File expectedWhitelist = new File("src/test/resources/generate-whitelist-tar/whitelist.tmpl.xml");
+        File distributionArchive = new File("src/test/resources/generate-whitelist-tar/generate_whitelist_tar.tar.gz");
+
+        // when
+        verifierService.generate(distributionArchive, outputDirectory, whitelist);
+
+        // then
+        assertThat(expectedWhitelist, isSimilarTo(whitelist).ignoreWhitespace().ignoreComments());
+
+    }
+
 }
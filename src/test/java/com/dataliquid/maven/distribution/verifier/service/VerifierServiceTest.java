@@ -19,19 +19,52 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.CoreMatchers.allOf;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.zeroturnaround.zip.ZipUtil;
 
+import com.dataliquid.maven.distribution.verifier.domain.ArchiveEngine;
+import com.dataliquid.maven.distribution.verifier.domain.DigestAlgorithm;
+import com.dataliquid.maven.distribution.verifier.domain.Entry;
+import com.dataliquid.maven.distribution.verifier.domain.PhaseMetrics;
 import com.dataliquid.maven.distribution.verifier.domain.ResultEntry;
+import com.dataliquid.maven.distribution.verifier.domain.RunMetrics;
+import com.dataliquid.maven.distribution.verifier.domain.Verification;
 import com.dataliquid.maven.distribution.verifier.domain.VerifierResult;
+import com.dataliquid.maven.distribution.verifier.domain.WhitelistIndex;
+import com.dataliquid.maven.distribution.verifier.domain.WhitelistParser;
+import com.dataliquid.maven.distribution.verifier.event.EntryEvent;
+import com.dataliquid.maven.distribution.verifier.event.PhaseEvent;
 
 public class VerifierServiceTest
 {
@@ -212,4 +245,1192 @@ public class VerifierServiceTest
         
         assertThat(verifierResult.isValid(), is(false));
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldVerifyValidWithStreamEngine() throws Exception
+    {
+        // given
+        File whitelist = new File("src/test/resources/valid-fullmatch/whitelist.xml");
+        File distributionArchive = new File("src/test/resources/valid-fullmatch/valid_fullmatch.zip");
+        File workDirectory = new File(outputDirectory, "stream-engine");
+        verifierService.setArchiveEngine(ArchiveEngine.STREAM);
+
+        // when
+        VerifierResult verifierResult = verifierService.verify(distributionArchive, workDirectory, whitelist, variables);
+
+        // then
+        final List<ResultEntry> verificationResults = verifierResult.getResultEntries();
+        verificationResults.stream().forEach(System.out::println);
+        assertThat(verificationResults,contains( 
+                allOf(
+                    hasProperty("status", is("SUCCESS")),
+                    hasProperty("message", is("Validation passed successfully")), 
+                    hasProperty("path", is("/Sample.md")),
+                    hasProperty("md5", is("4114b3e750902c5404ffe4864b3e11b8"))),
+                allOf(
+                        hasProperty("status", is("SUCCESS")),
+                        hasProperty("message", is("Validation passed successfully")), 
+                        hasProperty("path", is("/Sample.txt")),
+                        hasProperty("md5", is("193fa5e788a1800a760d1108051c2363")))
+                ));
+
+        assertThat(verifierResult.isValid(), is(true));
+        assertThat(new File(workDirectory, "valid_fullmatch.zip-unzipped").exists(), is(false));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldVerifyInvalidWithStreamEngine() throws Exception
+    {
+        // given
+        File whitelist = new File("src/test/resources/invalid-found-undefined-file/whitelist.xml");
+        File distributionArchive = new File("src/test/resources/invalid-found-undefined-file/invalid_found_undefined_file.zip");
+        verifierService.setArchiveEngine(ArchiveEngine.STREAM);
+
+        // when
+        VerifierResult verifierResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+
+        // then
+        final List<ResultEntry> verificationResults = verifierResult.getResultEntries();
+        verificationResults.stream().forEach(System.out::println);
+        assertThat(verificationResults,contains( 
+                allOf(
+                    hasProperty("status", is("SUCCESS")),
+                    hasProperty("message", is("Validation passed successfully")), 
+                    hasProperty("path", is("/Sample.md")),
+                    hasProperty("md5", is("4114b3e750902c5404ffe4864b3e11b8"))),
+                allOf(
+                        hasProperty("status", is("SUCCESS")),
+                        hasProperty("message", is("Validation passed successfully")), 
+                        hasProperty("path", is("/Sample.txt")),
+                        hasProperty("md5", is("193fa5e788a1800a760d1108051c2363"))),
+                allOf(
+                        hasProperty("status", is("FAILED")),
+                        hasProperty("message", is("File is not defined in whitelist")), 
+                        hasProperty("path", is("/Sample.adoc")),
+                        hasProperty("md5", is("0430eba9643b5e60e49c055eb16cbf7a")))
+                ));
+
+        assertThat(verifierResult.isValid(), is(false));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldVerifyInvalidDifferentMd5ChecksumWithStreamEngine() throws Exception
+    {
+        // given
+        File whitelist = new File("src/test/resources/invalid-different-md5-checksum/whitelist.xml");
+        File distributionArchive = new File("src/test/resources/invalid-different-md5-checksum/invalid_different_md5_checksum.zip");
+        verifierService.setArchiveEngine(ArchiveEngine.STREAM);
+
+        // when
+        VerifierResult verifierResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+
+        // then
+        final List<ResultEntry> verificationResults = verifierResult.getResultEntries();
+        verificationResults.stream().forEach(System.out::println);
+        assertThat(verificationResults,contains( 
+                allOf(
+                    hasProperty("status", is("SUCCESS")),
+                    hasProperty("message", is("Validation passed successfully")), 
+                    hasProperty("path", is("/Sample.md")),
+                    hasProperty("md5", is("4114b3e750902c5404ffe4864b3e11b8"))),
+                allOf(
+                        hasProperty("status", is("FAILED")),
+                        hasProperty("message", is("File found but with a different MD5 Checksum 193fa5e788a1800a760d1108051c2363")), 
+                        hasProperty("path", is("/Sample.txt")),
+                        hasProperty("md5", is("193fa5e788a1800a760d1108051c4711")))
+                ));
+
+        assertThat(verifierResult.isValid(), is(false));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldVerifyValidWithCentralDirectoryEngine() throws Exception
+    {
+        // given
+        File whitelist = new File("src/test/resources/valid-crc32/whitelist.xml");
+        File distributionArchive = new File("src/test/resources/valid-crc32/valid_crc32.zip");
+        verifierService.setArchiveEngine(ArchiveEngine.CENTRAL_DIRECTORY);
+
+        // when
+        VerifierResult verifierResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+
+        // then
+        final List<ResultEntry> verificationResults = verifierResult.getResultEntries();
+        verificationResults.stream().forEach(System.out::println);
+        assertThat(verificationResults,contains( 
+                allOf(
+                    hasProperty("status", is("SUCCESS")),
+                    hasProperty("message", is("Validation passed successfully")), 
+                    hasProperty("path", is("/Sample.md")),
+                    hasProperty("crc32", is("6daa2d2e"))),
+                allOf(
+                        hasProperty("status", is("SUCCESS")),
+                        hasProperty("message", is("Validation passed successfully")), 
+                        hasProperty("path", is("/Sample.txt")),
+                        hasProperty("crc32", is("45a80dc5")))
+                ));
+
+        assertThat(verifierResult.isValid(), is(true));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldFailMd5OnlyEntriesWithCentralDirectoryEngine() throws Exception
+    {
+        // given
+        File whitelist = new File("src/test/resources/invalid-different-md5-checksum/whitelist.xml");
+        File distributionArchive = new File("src/test/resources/invalid-different-md5-checksum/invalid_different_md5_checksum.zip");
+        verifierService.setArchiveEngine(ArchiveEngine.CENTRAL_DIRECTORY);
+
+        // when
+        VerifierResult verifierResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+
+        // then
+        final List<ResultEntry> verificationResults = verifierResult.getResultEntries();
+        assertThat(verificationResults,contains( 
+                allOf(
+                    hasProperty("status", is("FAILED")),
+                    hasProperty("message", is("File found but its MD5 Checksum can not be verified by the central-directory engine")), 
+                    hasProperty("path", is("/Sample.md"))),
+                allOf(
+                    hasProperty("status", is("FAILED")),
+                    hasProperty("message", is("File found but its MD5 Checksum can not be verified by the central-directory engine")), 
+                    hasProperty("path", is("/Sample.txt")),
+                    hasProperty("md5", is("193fa5e788a1800a760d1108051c4711")))
+                ));
+
+        assertThat(verifierResult.isValid(), is(false));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldVerifyValidWithMultipleDigests() throws Exception
+    {
+        // given
+        File whitelist = new File("src/test/resources/valid-multi-digest/whitelist.xml");
+        File distributionArchive = new File("src/test/resources/valid-multi-digest/valid_multi_digest.zip");
+
+        // when
+        VerifierResult verifierResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+
+        // then
+        final List<ResultEntry> verificationResults = verifierResult.getResultEntries();
+        verificationResults.stream().forEach(System.out::println);
+        assertThat(verificationResults,contains( 
+                allOf(
+                    hasProperty("status", is("SUCCESS")),
+                    hasProperty("message", is("Validation passed successfully")), 
+                    hasProperty("path", is("/Sample.md")),
+                    hasProperty("verifiedDigests", contains(DigestAlgorithm.MD5, DigestAlgorithm.SHA256, DigestAlgorithm.CRC32C))),
+                allOf(
+                        hasProperty("status", is("SUCCESS")),
+                        hasProperty("message", is("Validation passed successfully")), 
+                        hasProperty("path", is("/Sample.txt")),
+                        hasProperty("verifiedDigests", contains(DigestAlgorithm.MD5, DigestAlgorithm.SHA256, DigestAlgorithm.CRC32C)))
+                ));
+
+        assertThat(verifierResult.isValid(), is(true));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldVerifyInvalidDifferentSha256Checksum() throws Exception
+    {
+        // given
+        File whitelist = new File("src/test/resources/invalid-different-sha256-checksum/whitelist.xml");
+        File distributionArchive = new File("src/test/resources/invalid-different-sha256-checksum/invalid_different_sha256_checksum.zip");
+        verifierService.setArchiveEngine(ArchiveEngine.STREAM);
+
+        // when
+        VerifierResult verifierResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+
+        // then
+        final List<ResultEntry> verificationResults = verifierResult.getResultEntries();
+        verificationResults.stream().forEach(System.out::println);
+        assertThat(verificationResults,contains( 
+                allOf(
+                    hasProperty("status", is("SUCCESS")),
+                    hasProperty("message", is("Validation passed successfully")), 
+                    hasProperty("path", is("/Sample.md"))),
+                allOf(
+                        hasProperty("status", is("FAILED")),
+                        hasProperty("message", is("File found but with a different SHA-256 Checksum 96d9f78a46e5341a54eeae40fd56e42f3a1f5225637fb58b5424820ff5978b6a")), 
+                        hasProperty("path", is("/Sample.txt")),
+                        hasProperty("md5", is("193fa5e788a1800a760d1108051c2363")))
+                ));
+
+        assertThat(verifierResult.isValid(), is(false));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldVerifyInvalidDifferentCrc32Checksum() throws Exception
+    {
+        // given
+        File whitelist = new File("src/test/resources/invalid-different-crc32-checksum/whitelist.xml");
+        File distributionArchive = new File("src/test/resources/invalid-different-crc32-checksum/invalid_different_crc32_checksum.zip");
+
+        // when
+        VerifierResult verifierResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+
+        // then
+        final List<ResultEntry> verificationResults = verifierResult.getResultEntries();
+        verificationResults.stream().forEach(System.out::println);
+        assertThat(verificationResults,contains( 
+                allOf(
+                    hasProperty("status", is("SUCCESS")),
+                    hasProperty("message", is("Validation passed successfully")), 
+                    hasProperty("path", is("/Sample.md")),
+                    hasProperty("crc32", is("6daa2d2e"))),
+                allOf(
+                        hasProperty("status", is("FAILED")),
+                        hasProperty("message", is("File found but with a different CRC-32 Checksum 45a80dc5")), 
+                        hasProperty("path", is("/Sample.txt")),
+                        hasProperty("crc32", is("45a80dc6")))
+                ));
+
+        assertThat(verifierResult.isValid(), is(false));
+    }
+
+    @Test
+    public void shouldVerifyValidNestedArchive() throws Exception
+    {
+        // given
+        File whitelist = new File("src/test/resources/valid-nested-archive/whitelist.xml");
+        File distributionArchive = new File("src/test/resources/valid-nested-archive/valid_nested_archive.zip");
+        verifierService.setArchiveEngine(ArchiveEngine.STREAM);
+
+        // when
+        VerifierResult verifierResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+
+        // then
+        final List<ResultEntry> verificationResults = verifierResult.getResultEntries();
+        verificationResults.stream().forEach(System.out::println);
+        assertThat(verificationResults.size(), is(5));
+        assertThat(verificationResults.get(4).getPath(), is("/lib/inner.jar!/com/example/Extra.class"));
+        assertThat(verifierResult.isValid(), is(true));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldVerifyInvalidNestedArchive() throws Exception
+    {
+        // given
+        File whitelist = new File("src/test/resources/invalid-nested-archive/whitelist.xml");
+        File distributionArchive = new File("src/test/resources/invalid-nested-archive/invalid_nested_archive.zip");
+
+        // when
+        VerifierResult verifierResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+
+        // then
+        final List<ResultEntry> verificationResults = verifierResult.getResultEntries();
+        verificationResults.stream().forEach(System.out::println);
+        assertThat(verificationResults,contains( 
+                allOf(
+                    hasProperty("status", is("SUCCESS")),
+                    hasProperty("path", is("/README.txt"))),
+                allOf(
+                    hasProperty("status", is("SUCCESS")),
+                    hasProperty("path", is("/lib/inner.jar"))),
+                allOf(
+                    hasProperty("status", is("SUCCESS")),
+                    hasProperty("path", is("/lib/inner.jar!/META-INF/MANIFEST.MF"))),
+                allOf(
+                    hasProperty("status", is("FAILED")),
+                    hasProperty("message", is("File found but with a different MD5 Checksum f4093d806dac169bfbb35d2ac0ac1a1c")), 
+                    hasProperty("path", is("/lib/inner.jar!/com/example/Sample.class"))),
+                allOf(
+                    hasProperty("status", is("FAILED")),
+                    hasProperty("message", is("Defined file not found")), 
+                    hasProperty("path", is("/lib/inner.jar!/com/example/Missing.class"))),
+                allOf(
+                    hasProperty("status", is("FAILED")),
+                    hasProperty("message", is("File is not defined in whitelist")), 
+                    hasProperty("path", is("/lib/inner.jar!/com/example/Extra.class")))
+                ));
+
+        assertThat(verifierResult.isValid(), is(false));
+    }
+
+    @Test
+    public void shouldVerifyNestedArchiveAsPlainFileWithoutNestedArchiveDepth() throws Exception
+    {
+        // given
+        File whitelist = new File("src/test/resources/invalid-nested-archive/whitelist.xml");
+        File distributionArchive = new File("src/test/resources/invalid-nested-archive/invalid_nested_archive.zip");
+        verifierService.setNestedArchiveDepth(0);
+
+        // when
+        VerifierResult verifierResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+
+        // then
+        assertThat(verifierResult.getResultEntries().size(), is(2));
+        assertThat(verifierResult.isValid(), is(true));
+    }
+
+    @Test
+    public void shouldVerifyTarArchivesLikeZipArchive() throws Exception
+    {
+        // given
+        File whitelist = new File("src/test/resources/valid-tar/whitelist.xml");
+        File zipArchive = new File("src/test/resources/valid-fullmatch/valid_fullmatch.zip");
+        File tarArchive = new File("src/test/resources/valid-tar/valid_tar.tar");
+        File tarGzArchive = new File("src/test/resources/valid-tar/valid_tar.tar.gz");
+
+        // when
+        VerifierResult zipResult = verifierService.verify(zipArchive, outputDirectory, whitelist, variables);
+        VerifierResult tarResult = verifierService.verify(tarArchive, outputDirectory, whitelist, variables);
+        VerifierResult tarGzResult = verifierService.verify(tarGzArchive, outputDirectory, whitelist, variables);
+
+        // then
+        assertThat(zipResult.isValid(), is(true));
+        assertThat(tarResult, is(zipResult));
+        assertThat(tarGzResult, is(zipResult));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldVerifyInvalidTarGzArchiveWithUndefinedFile() throws Exception
+    {
+        // given
+        File whitelist = new File("src/test/resources/invalid-tar/whitelist.xml");
+        File distributionArchive = new File("src/test/resources/invalid-tar/invalid_tar.tar.gz");
+
+        // when
+        VerifierResult verifierResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+
+        // then
+        final List<ResultEntry> verificationResults = verifierResult.getResultEntries();
+        verificationResults.stream().forEach(System.out::println);
+        assertThat(verificationResults,contains( 
+                allOf(
+                    hasProperty("status", is("SUCCESS")),
+                    hasProperty("path", is("/Sample.md"))),
+                allOf(
+                    hasProperty("status", is("SUCCESS")),
+                    hasProperty("path", is("/Sample.txt"))),
+                allOf(
+                    hasProperty("status", is("FAILED")),
+                    hasProperty("message", is("File is not defined in whitelist")), 
+                    hasProperty("path", is("/Sample.adoc")))
+                ));
+
+        assertThat(verifierResult.isValid(), is(false));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldVerifyFilesMatchedByPatternEntries() throws Exception
+    {
+        // given
+        File whitelist = new File("src/test/resources/valid-pattern/whitelist.xml");
+        File distributionArchive = new File("src/test/resources/valid-pattern/valid_pattern.zip");
+        variables.put("project.version", "1.0.0");
+
+        // when
+        VerifierResult verifierResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+
+        // then
+        final List<ResultEntry> verificationResults = verifierResult.getResultEntries();
+        verificationResults.stream().forEach(System.out::println);
+        assertThat(verificationResults,contains( 
+                allOf(
+                    hasProperty("status", is("SUCCESS")),
+                    hasProperty("path", is("/Sample.md"))),
+                allOf(
+                    hasProperty("status", is("SUCCESS")),
+                    hasProperty("message", is("Pattern matched 2 files")), 
+                    hasProperty("path", is("/lib/sample-[a-z]+-\\Q1.0.0\\E\\.jar"))),
+                allOf(
+                    hasProperty("status", is("SUCCESS")),
+                    hasProperty("message", is("Validation passed successfully")), 
+                    hasProperty("path", is("/lib/sample-core-1.0.0.jar"))),
+                allOf(
+                    hasProperty("status", is("SUCCESS")),
+                    hasProperty("message", is("Validation passed successfully")), 
+                    hasProperty("path", is("/lib/sample-api-1.0.0.jar"))),
+                allOf(
+                    hasProperty("status", is("SUCCESS")),
+                    hasProperty("message", is("Pattern matched 1 files")), 
+                    hasProperty("path", is("/docs/**/*.html"))),
+                allOf(
+                    hasProperty("status", is("SUCCESS")),
+                    hasProperty("message", is("Validation passed successfully")), 
+                    hasProperty("path", is("/docs/guide/index.html")),
+                    hasProperty("md5", is("391ebb4c8dada0793c3d9a1ef3bb1a58")))
+                ));
+
+        assertThat(verifierResult.isValid(), is(true));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldVerifyOccurrencesOfPatternEntries() throws Exception
+    {
+        // given
+        File whitelist = new File("src/test/resources/invalid-pattern/whitelist.xml");
+        File distributionArchive = new File("src/test/resources/invalid-pattern/invalid_pattern.zip");
+
+        // when
+        VerifierResult verifierResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+
+        // then
+        final List<ResultEntry> verificationResults = verifierResult.getResultEntries();
+        verificationResults.stream().forEach(System.out::println);
+        assertThat(verificationResults,contains( 
+                allOf(
+                    hasProperty("status", is("SUCCESS")),
+                    hasProperty("path", is("/Sample.md"))),
+                allOf(
+                    hasProperty("status", is("SUCCESS")),
+                    hasProperty("path", is("/lib/sample-api-1.0.0.jar"))),
+                allOf(
+                    hasProperty("status", is("FAILED")),
+                    hasProperty("message", is("Pattern matched 1 files but expects at least 2")), 
+                    hasProperty("path", is("/lib/*.jar"))),
+                allOf(
+                    hasProperty("status", is("SUCCESS")),
+                    hasProperty("path", is("/lib/sample-core-1.0.0.jar"))),
+                allOf(
+                    hasProperty("status", is("FAILED")),
+                    hasProperty("message", is("Pattern matched 0 files but expects at least 1")), 
+                    hasProperty("path", is("/conf/*.properties"))),
+                allOf(
+                    hasProperty("status", is("FAILED")),
+                    hasProperty("message", is("File is not defined in whitelist")), 
+                    hasProperty("path", is("/docs/guide/index.html")))
+                ));
+
+        assertThat(verifierResult.isValid(), is(false));
+    }
+
+    @Test
+    public void shouldVerifyPatternEntriesWithCompiledWhitelistIndexAndDomWhitelistParser() throws Exception
+    {
+        // given
+        File indexDirectory = new File(outputDirectory, "whitelist-index-pattern");
+        FileUtils.deleteDirectory(indexDirectory);
+        File whitelist = new File("src/test/resources/valid-pattern/whitelist.xml");
+        File distributionArchive = new File("src/test/resources/valid-pattern/valid_pattern.zip");
+        variables.put("project.version", "1.0.0");
+        VerifierResult parsedResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+
+        // when
+        verifierService.setWhitelistIndexDirectory(indexDirectory);
+        verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+        VerifierResult compiledResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+        verifierService.setWhitelistIndexDirectory(null);
+        verifierService.setWhitelistParser(WhitelistParser.DOM);
+        VerifierResult domResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+
+        // then
+        assertThat(parsedResult.isValid(), is(true));
+        assertThat(compiledResult, is(parsedResult));
+        assertThat(domResult, is(parsedResult));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldSkipFilesMatchedByExcludeRules() throws Exception
+    {
+        // given
+        File whitelist = new File("src/test/resources/valid-exclude/whitelist.xml");
+        File distributionArchive = new File("src/test/resources/valid-exclude/valid_exclude.zip");
+
+        // when
+        VerifierResult unpackResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+        verifierService.setArchiveEngine(ArchiveEngine.STREAM);
+        VerifierResult streamResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+        verifierService.setWhitelistParser(WhitelistParser.DOM);
+        VerifierResult domResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+
+        // then
+        final List<ResultEntry> verificationResults = unpackResult.getResultEntries();
+        verificationResults.stream().forEach(System.out::println);
+        assertThat(verificationResults,contains( 
+                allOf(
+                    hasProperty("status", is("SUCCESS")),
+                    hasProperty("path", is("/Sample.md"))),
+                allOf(
+                    hasProperty("status", is("SUCCESS")),
+                    hasProperty("path", is("/lib/sample-api-1.0.0.jar")))
+                ));
+
+        assertThat(unpackResult.isValid(), is(true));
+        assertThat(streamResult, is(unpackResult));
+        assertThat(domResult, is(unpackResult));
+    }
+
+    @Test
+    public void shouldSkipFilesMatchedByConfiguredExcludes() throws Exception
+    {
+        // given
+        File whitelist = new File("src/test/resources/invalid-found-undefined-file/whitelist.xml");
+        File distributionArchive = new File("src/test/resources/invalid-found-undefined-file/invalid_found_undefined_file.zip");
+        verifierService.setExcludes(Arrays.asList("/*.adoc"));
+
+        // when
+        VerifierResult verifierResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+
+        // then
+        assertThat(verifierResult.isValid(), is(true));
+        assertThat(verifierResult.getResultEntries().size(), is(2));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldRecordMetricsOfEveryPhase() throws Exception
+    {
+        // given
+        File whitelist = new File("src/test/resources/valid-fullmatch/whitelist.xml");
+        File distributionArchive = new File("src/test/resources/valid-fullmatch/valid_fullmatch.zip");
+
+        // when
+        VerifierResult verifierResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+
+        // then
+        RunMetrics metrics = verifierResult.getMetrics();
+        assertThat(metrics.getStatus(), is("SUCCESS"));
+        assertThat(metrics.getPhases(), contains(
+                allOf(
+                    hasProperty("name", is("whitelist")),
+                    hasProperty("entries", is(2L)),
+                    hasProperty("bytes", is(whitelist.length()))),
+                allOf(
+                    hasProperty("name", is("unpack")),
+                    hasProperty("entries", is(2L)),
+                    hasProperty("bytes", is(distributionArchive.length()))),
+                allOf(
+                    hasProperty("name", is("hashing")),
+                    hasProperty("entries", is(2L)),
+                    hasProperty("bytes", is(27L)))
+                ));
+        assertThat(metrics.toSummary(), startsWith("verify valid_fullmatch.zip"));
+    }
+
+    @Test
+    public void shouldRecordFlightRecorderEvents() throws Exception
+    {
+        // given
+        File whitelist = new File("src/test/resources/valid-fullmatch/whitelist.xml");
+        File distributionArchive = new File("src/test/resources/valid-fullmatch/valid_fullmatch.zip");
+        Path recordingFile = new File(outputDirectory, "verifier-service-test.jfr").toPath();
+        verifierService.setArchiveEngine(ArchiveEngine.STREAM);
+
+        // when
+        try (Recording recording = new Recording())
+        {
+            recording.enable(EntryEvent.NAME);
+            recording.enable(PhaseEvent.NAME);
+            recording.start();
+            verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        // then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+        assertThat(describeEvents(events, EntryEvent.NAME, "goal", "path", "size", "compressionMethod", "outcome"),
+                containsInAnyOrder("verify /Sample.md 15 STORED SUCCESS", "verify /Sample.txt 12 STORED SUCCESS"));
+        assertThat(describeEvents(events, PhaseEvent.NAME, "goal", "phase", "entries", "bytes"),
+                containsInAnyOrder("verify whitelist 2 " + whitelist.length(), "verify unpack 0 0", "verify hashing 2 27"));
+    }
+
+    /**
+     * @return values of the given fields separated by a space for every recorded event with the given name
+     */
+    private static List<String> describeEvents(List<RecordedEvent> events, String name, String... fields)
+    {
+        List<String> descriptions = new ArrayList<>();
+        for (RecordedEvent event : events)
+        {
+            if (event.getEventType().getName().equals(name))
+            {
+                StringJoiner description = new StringJoiner(" ");
+                for (String field : fields)
+                {
+                    description.add(String.valueOf((Object) event.getValue(field)));
+                }
+                descriptions.add(description.toString());
+            }
+        }
+        return descriptions;
+    }
+
+    @Test
+    public void shouldVerifyWithDomWhitelistParserLikeStreamWhitelistParser() throws Exception
+    {
+        // given
+        File whitelist = new File("src/test/resources/valid-fullmatch-variables/whitelist.xml");
+        File distributionArchive = new File("src/test/resources/valid-fullmatch-variables/valid_fullmatch_variables.zip");
+        variables.put("project.artifactId", "myartifact");
+        variables.put("project.version", "1.0.0");
+
+        // when
+        verifierService.setWhitelistParser(WhitelistParser.STREAM);
+        VerifierResult streamResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+        verifierService.setWhitelistParser(WhitelistParser.DOM);
+        VerifierResult domResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+
+        // then
+        assertThat(streamResult.isValid(), is(true));
+        assertThat(domResult, is(streamResult));
+    }
+
+    @Test
+    public void shouldReuseCompiledWhitelistIndex() throws Exception
+    {
+        // given
+        File indexDirectory = new File(outputDirectory, "whitelist-index");
+        FileUtils.deleteDirectory(indexDirectory);
+        File whitelist = new File("src/test/resources/valid-fullmatch-variables/whitelist.xml");
+        File distributionArchive = new File("src/test/resources/valid-fullmatch-variables/valid_fullmatch_variables.zip");
+        variables.put("project.artifactId", "myartifact");
+        variables.put("project.version", "1.0.0");
+        VerifierResult parsedResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+        verifierService.setWhitelistIndexDirectory(indexDirectory);
+
+        // when
+        VerifierResult compilingResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+        File[] indexFiles = indexDirectory.listFiles();
+        VerifierResult compiledResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+        variables.put("project.version", "2.0.0");
+        VerifierResult changedPropertiesResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+
+        // then
+        assertThat(indexFiles.length, is(1));
+        assertThat(compilingResult, is(parsedResult));
+        assertThat(compiledResult, is(parsedResult));
+        assertThat(changedPropertiesResult.isValid(), is(false));
+        assertThat(indexDirectory.listFiles().length, is(1));
+    }
+
+    @Test
+    public void shouldKeepCompiledIndexesOfSameNamedWhitelists() throws Exception
+    {
+        // given
+        File indexDirectory = new File(outputDirectory, "whitelist-index-same-name");
+        FileUtils.deleteDirectory(indexDirectory);
+        File validWhitelist = new File("src/test/resources/valid-fullmatch/whitelist.xml");
+        File invalidWhitelist = new File("src/test/resources/invalid-missingfile/whitelist.xml");
+        File distributionArchive = new File("src/test/resources/valid-fullmatch/valid_fullmatch.zip");
+        verifierService.setWhitelistIndexDirectory(indexDirectory);
+
+        // when
+        verifierService.verify(distributionArchive, outputDirectory, validWhitelist, variables);
+        verifierService.verify(distributionArchive, outputDirectory, invalidWhitelist, variables);
+
+        // then
+        assertThat(indexDirectory.listFiles().length, is(2));
+    }
+
+    @Test
+    public void shouldReuseCachedChecksums() throws Exception
+    {
+        // given
+        File cacheDirectory = new File(outputDirectory, "checksum-cache");
+        FileUtils.deleteDirectory(cacheDirectory);
+        File checksumCacheFile = new File(cacheDirectory, "checksums.bin");
+        File distributionArchive = new File(cacheDirectory, "cached.zip");
+        File whitelist = new File(cacheDirectory, "cached.xml");
+        createSyntheticDistribution(distributionArchive, whitelist, 200);
+        verifierService.setArchiveEngine(ArchiveEngine.STREAM);
+        verifierService.setChecksumCacheFile(checksumCacheFile);
+        VerifierResult uncachedResult = verifierService.verify(distributionArchive, cacheDirectory, whitelist, variables);
+
+        // a cached digest is used instead of reading the entry again
+        String path = "/lib/module-7/file-7.txt";
+        byte[] content = "content of entry 7".getBytes(StandardCharsets.UTF_8);
+        CRC32 crc32 = new CRC32();
+        crc32.update(content);
+        try (ChecksumCache checksumCache = ChecksumCache.open(checksumCacheFile, ChecksumCache.DEFAULT_MAX_ENTRIES))
+        {
+            assertThat(checksumCache.size(), is(200));
+            checksumCache.put(path, content.length, crc32.getValue(), DigestAlgorithm.MD5, new byte[16]);
+        }
+
+        // when
+        VerifierResult cachedResult = verifierService.verify(distributionArchive, cacheDirectory, whitelist, variables);
+        verifierService.setChecksumCacheMaxEntries(50);
+        verifierService.verify(distributionArchive, cacheDirectory, whitelist, variables);
+
+        // then
+        assertThat(uncachedResult.isValid(), is(true));
+        assertThat(cachedResult.isValid(), is(false));
+        assertThat(cachedResult.getResultEntries().get(7).getMessage(),
+                is("File found but with a different MD5 Checksum 00000000000000000000000000000000"));
+        assertThat(ChecksumCache.open(checksumCacheFile, ChecksumCache.DEFAULT_MAX_ENTRIES).size(), is(50));
+    }
+
+    @Test
+    public void shouldVerifyInParallelWithDeterministicOrder() throws Exception
+    {
+        // given
+        File parallelDirectory = new File(outputDirectory, "parallel");
+        File distributionArchive = new File(parallelDirectory, "parallel.zip");
+        File whitelist = new File("src/test/resources/invalid-missingfile/whitelist.xml");
+        createSyntheticDistribution(distributionArchive, new File(parallelDirectory, "parallel.xml"), 500);
+        verifierService.setArchiveEngine(ArchiveEngine.STREAM);
+
+        // when
+        verifierService.setThreads(1);
+        VerifierResult sequentialResult = verifierService.verify(distributionArchive, parallelDirectory, whitelist, variables);
+        verifierService.setThreads(8);
+        VerifierResult parallelResult = verifierService.verify(distributionArchive, parallelDirectory, whitelist, variables);
+
+        // then
+        assertThat(sequentialResult.getResultEntries().size(), is(503));
+        assertThat(parallelResult, is(sequentialResult));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldTruncateVerificationAfterMaxFailures() throws Exception
+    {
+        // given
+        File failFastDirectory = new File(outputDirectory, "fail-fast");
+        File distributionArchive = new File(failFastDirectory, "fail-fast.zip");
+        File whitelist = new File("src/test/resources/invalid-missingfile/whitelist.xml");
+        createSyntheticDistribution(distributionArchive, new File(failFastDirectory, "fail-fast.xml"), 500);
+        verifierService.setArchiveEngine(ArchiveEngine.STREAM);
+        verifierService.setThreads(1);
+        verifierService.setMaxFailures(2);
+
+        // when
+        VerifierResult verifierResult = verifierService.verify(distributionArchive, failFastDirectory, whitelist, variables);
+
+        // then
+        assertThat(verifierResult.isValid(), is(false));
+        assertThat(verifierResult.isTruncated(), is(true));
+        assertThat(verifierResult.getResultEntries(), contains(
+                hasProperty("status", is("FAILED")),
+                hasProperty("status", is("FAILED")),
+                allOf(
+                    hasProperty("path", nullValue()),
+                    hasProperty("status", is("TRUNCATED")),
+                    hasProperty("message", is("Verification truncated after 2 failures, 501 files not verified")))
+                ));
+        assertThat(verifierResult.getMetrics().phase(RunMetrics.HASHING).getEntries(), is(0L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldStopReadingTarArchiveAfterMaxFailures() throws Exception
+    {
+        // given
+        File whitelist = new File("src/test/resources/invalid-tar/whitelist.xml");
+        File distributionArchive = new File("src/test/resources/invalid-tar/invalid_tar.tar.gz");
+        verifierService.setMaxFailures(1);
+
+        // when
+        VerifierResult verifierResult = verifierService.verify(distributionArchive, outputDirectory, whitelist, variables);
+
+        // then
+        assertThat(verifierResult.isValid(), is(false));
+        assertThat(verifierResult.isTruncated(), is(true));
+        assertThat(verifierResult.getResultEntries(), contains(
+                allOf(
+                    hasProperty("path", is("/Sample.adoc")),
+                    hasProperty("status", is("FAILED"))),
+                allOf(
+                    hasProperty("status", is("TRUNCATED")),
+                    hasProperty("message", is("Verification truncated after 1 failures, 2 files not verified and the remaining files of the archive not read")))
+                ));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldNotHashUndefinedFilesBeyondMaxFailures() throws Exception
+    {
+        // given
+        File failFastDirectory = new File(outputDirectory, "fail-fast-parallel");
+        File distributionArchive = new File(failFastDirectory, "fail-fast.zip");
+        File whitelist = new File("src/test/resources/invalid-missingfile/whitelist.xml");
+        createSyntheticDistribution(distributionArchive, new File(failFastDirectory, "fail-fast.xml"), 500);
+        verifierService.setArchiveEngine(ArchiveEngine.STREAM);
+        verifierService.setThreads(4);
+        verifierService.setMaxFailures(2);
+
+        // when
+        VerifierResult verifierResult = verifierService.verify(distributionArchive, failFastDirectory, whitelist, variables);
+
+        // then
+        assertThat(verifierResult.isTruncated(), is(true));
+        assertThat(verifierResult.getMetrics().phase(RunMetrics.HASHING).getEntries(), is(0L));
+    }
+
+    @Test
+    public void shouldVerifyMultipleDistributionArchivesWithSharedPool() throws Exception
+    {
+        // given
+        File multipleDirectory = new File(outputDirectory, "multiple");
+        File syntheticArchive = new File(multipleDirectory, "synthetic.zip");
+        File syntheticWhitelist = new File(multipleDirectory, "synthetic.xml");
+        createSyntheticDistribution(syntheticArchive, syntheticWhitelist, 300);
+        List<Verification> verifications = Arrays.asList(
+                new Verification(new File("src/test/resources/valid-fullmatch/valid_fullmatch.zip"),
+                        new File("src/test/resources/valid-fullmatch/whitelist.xml"), null),
+                new Verification(new File("src/test/resources/invalid-missingfile/invalid_missingfile.zip"),
+                        new File("src/test/resources/invalid-missingfile/whitelist.xml"), null),
+                new Verification(syntheticArchive, syntheticWhitelist, null));
+        verifierService.setArchiveEngine(ArchiveEngine.STREAM);
+        verifierService.setThreads(4);
+
+        // when
+        List<VerifierResult> verifierResults = verifierService.verify(verifications, multipleDirectory, variables);
+
+        // then
+        assertThat(verifierResults.size(), is(3));
+        for (int i = 0; i < verifications.size(); i++)
+        {
+            Verification verification = verifications.get(i);
+            assertThat(verifierResults.get(i),
+                    is(verifierService.verify(verification.getDistributionArchiveFile(), multipleDirectory, verification.getWhitelist(), variables)));
+        }
+        assertThat(verifierResults.get(0).isValid(), is(true));
+        assertThat(verifierResults.get(1).isValid(), is(false));
+        assertThat(verifierResults.get(2).getResultEntries().size(), is(300));
+    }
+
+    @Test
+    public void shouldUnpackSameNamedArchivesConcurrentlyIntoSeparateWorkDirectories() throws Exception
+    {
+        // given
+        File workDirectory = new File(outputDirectory, "concurrent-unpack");
+        FileUtils.deleteDirectory(workDirectory);
+        File firstArchive = new File(workDirectory, "first/distribution.zip");
+        File firstWhitelist = new File(workDirectory, "first/whitelist.xml");
+        createSyntheticDistribution(firstArchive, firstWhitelist, 100);
+        File secondArchive = new File(workDirectory, "second/distribution.zip");
+        File secondWhitelist = new File(workDirectory, "second/whitelist.xml");
+        createSyntheticDistribution(secondArchive, secondWhitelist, 150);
+        verifierService.setArchiveEngine(ArchiveEngine.UNPACK);
+
+        // when
+        CompletableFuture<VerifierResult> firstResult = CompletableFuture
+                .supplyAsync(() -> verifierService.verify(firstArchive, workDirectory, firstWhitelist, variables));
+        CompletableFuture<VerifierResult> secondResult = CompletableFuture
+                .supplyAsync(() -> verifierService.verify(secondArchive, workDirectory, secondWhitelist, variables));
+
+        // then
+        assertThat(firstResult.get().isValid(), is(true));
+        assertThat(firstResult.get().getResultEntries().size(), is(100));
+        assertThat(secondResult.get().isValid(), is(true));
+        assertThat(secondResult.get().getResultEntries().size(), is(150));
+        assertThat(workDirectory.list((directory, name) -> name.startsWith("distribution.zip-unzipped")).length, is(0));
+    }
+
+    @Test
+    public void shouldVerifyWithZipFileSystemEngineLikeUnpackEngine() throws Exception
+    {
+        // given
+        File zipfsDirectory = new File(outputDirectory, "zipfs");
+        File distributionArchive = new File(zipfsDirectory, "zipfs.zip");
+        File whitelist = new File(zipfsDirectory, "zipfs.xml");
+        createSyntheticDistribution(distributionArchive, whitelist, 500);
+        File foreignWhitelist = new File("src/test/resources/invalid-missingfile/whitelist.xml");
+
+        // when
+        verifierService.setArchiveEngine(ArchiveEngine.ZIPFS);
+        VerifierResult zipfsResult = verifierService.verify(distributionArchive, zipfsDirectory, whitelist, variables);
+        VerifierResult zipfsForeignResult = verifierService.verify(distributionArchive, zipfsDirectory, foreignWhitelist, variables);
+        verifierService.setArchiveEngine(ArchiveEngine.UNPACK);
+        VerifierResult unpackForeignResult = verifierService.verify(distributionArchive, zipfsDirectory, foreignWhitelist, variables);
+
+        // then
+        assertThat(zipfsResult.isValid(), is(true));
+        assertThat(zipfsResult.getResultEntries().size(), is(500));
+        assertThat(zipfsForeignResult.getResultEntries().size(), is(503));
+        // the order of the undefined files depends on the directory iteration of the file system
+        assertThat(zipfsForeignResult.getResultEntries(), containsInAnyOrder(unpackForeignResult.getResultEntries().toArray()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldVerifyDirectoryInPlace() throws Exception
+    {
+        // given
+        File whitelist = new File("src/test/resources/valid-fullmatch/whitelist.xml");
+        File distributionDirectory = new File(outputDirectory, "directory-input/valid_fullmatch");
+        FileUtils.deleteDirectory(distributionDirectory);
+        ZipUtil.unpack(new File("src/test/resources/valid-fullmatch/valid_fullmatch.zip"), distributionDirectory);
+
+        // when
+        VerifierResult verifierResult = verifierService.verify(distributionDirectory, outputDirectory, whitelist, variables);
+
+        // then
+        assertThat(verifierResult.isValid(), is(true));
+        assertThat(verifierResult.getResultEntries(), contains(
+                allOf(
+                    hasProperty("path", is("/Sample.md")),
+                    hasProperty("status", is("SUCCESS"))),
+                allOf(
+                    hasProperty("path", is("/Sample.txt")),
+                    hasProperty("status", is("SUCCESS")))
+                ));
+        assertThat(new File(distributionDirectory, "Sample.md").isFile(), is(true));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldNotWalkExcludedDirectories() throws Exception
+    {
+        // given
+        File excludeDirectory = new File(outputDirectory, "exclude-directory");
+        FileUtils.deleteDirectory(excludeDirectory);
+        File distributionDirectory = new File(excludeDirectory, "distribution");
+        File distributionArchive = new File(excludeDirectory, "distribution.zip");
+        File whitelist = new File(excludeDirectory, "whitelist.xml");
+        List<String> files = Arrays.asList("Sample.md", "docs/LICENSE", "docs/index.html", "site/index.html", "site/css/site.css");
+        FileUtils.forceMkdirParent(distributionArchive);
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(new FileOutputStream(distributionArchive)))
+        {
+            for (String file : files)
+            {
+                FileUtils.writeStringToFile(new File(distributionDirectory, file), file, StandardCharsets.UTF_8);
+                zipOutputStream.putNextEntry(new ZipEntry(file));
+                zipOutputStream.write(file.getBytes(StandardCharsets.UTF_8));
+                zipOutputStream.closeEntry();
+            }
+        }
+        FileUtils.writeStringToFile(whitelist, "<whitelist>\n"
+                + "  <entry path=\"/Sample.md\" md5=\"" + DigestUtils.md5Hex("Sample.md") + "\"/>\n"
+                + "  <entry path=\"/docs/LICENSE\" md5=\"" + DigestUtils.md5Hex("docs/LICENSE") + "\"/>\n"
+                + "</whitelist>\n", StandardCharsets.UTF_8);
+        verifierService.setExcludes(Arrays.asList("/docs/**", "/site/**"));
+
+        // when
+        VerifierResult directoryResult = verifierService.verify(distributionDirectory, excludeDirectory, whitelist, variables);
+        verifierService.setArchiveEngine(ArchiveEngine.ZIPFS);
+        VerifierResult zipFileSystemResult = verifierService.verify(distributionArchive, excludeDirectory, whitelist, variables);
+
+        // then
+        // the site directory is skipped as a whole, docs is walked for its exact entry
+        assertThat(directoryResult.isValid(), is(true));
+        assertThat(directoryResult.getResultEntries(), contains(
+                hasProperty("path", is("/Sample.md")),
+                hasProperty("path", is("/docs/LICENSE"))));
+        assertThat(directoryResult.getMetrics().phase(RunMetrics.UNPACK).getEntries(), is(3L));
+        assertThat(zipFileSystemResult, is(directoryResult));
+        assertThat(zipFileSystemResult.getMetrics().phase(RunMetrics.UNPACK).getEntries(), is(3L));
+    }
+
+    @Test
+    public void shouldVerifyStoredEntriesWithMappedEngine() throws Exception
+    {
+        // given
+        File mappedDirectory = new File(outputDirectory, "mapped");
+        File distributionArchive = new File(mappedDirectory, "stored.zip");
+        File whitelist = new File(mappedDirectory, "stored.xml");
+        createSyntheticDistribution(distributionArchive, whitelist, 500, ZipEntry.STORED);
+        File foreignWhitelist = new File("src/test/resources/invalid-missingfile/whitelist.xml");
+
+        // when
+        verifierService.setArchiveEngine(ArchiveEngine.MAPPED);
+        VerifierResult mappedResult = verifierService.verify(distributionArchive, mappedDirectory, whitelist, variables);
+        VerifierResult mappedForeignResult = verifierService.verify(distributionArchive, mappedDirectory, foreignWhitelist, variables);
+        verifierService.setArchiveEngine(ArchiveEngine.STREAM);
+        VerifierResult streamForeignResult = verifierService.verify(distributionArchive, mappedDirectory, foreignWhitelist, variables);
+
+        // then
+        assertThat(mappedResult.isValid(), is(true));
+        assertThat(mappedResult.getResultEntries().size(), is(500));
+        assertThat(mappedForeignResult.getResultEntries().size(), is(503));
+        assertThat(mappedForeignResult, is(streamForeignResult));
+    }
+
+    @Test
+    public void shouldVerifyDeflatedEntriesWithMappedEngine() throws Exception
+    {
+        // given
+        File mappedDirectory = new File(outputDirectory, "mapped");
+        File distributionArchive = new File(mappedDirectory, "deflated.zip");
+        File whitelist = new File(mappedDirectory, "deflated.xml");
+        createSyntheticDistribution(distributionArchive, whitelist, 500, ZipEntry.DEFLATED);
+        verifierService.setArchiveEngine(ArchiveEngine.MAPPED);
+
+        // when
+        VerifierResult verifierResult = verifierService.verify(distributionArchive, mappedDirectory, whitelist, variables);
+
+        // then
+        assertThat(verifierResult.isValid(), is(true));
+        assertThat(verifierResult.getResultEntries().size(), is(500));
+    }
+
+    @Test
+    public void shouldVerifyZip64ArchiveWithMappedEngine() throws Exception
+    {
+        // given
+        File mappedDirectory = new File(outputDirectory, "mapped");
+        File distributionArchive = new File(mappedDirectory, "zip64.zip");
+        File whitelist = new File(mappedDirectory, "zip64.xml");
+        // more than 65535 entries require the ZIP64 end of central directory record
+        createSyntheticDistribution(distributionArchive, whitelist, 70_000, ZipEntry.STORED);
+        verifierService.setArchiveEngine(ArchiveEngine.MAPPED);
+
+        // when
+        VerifierResult verifierResult = verifierService.verify(distributionArchive, mappedDirectory, whitelist, variables);
+
+        // then
+        assertThat(verifierResult.isValid(), is(true));
+        assertThat(verifierResult.getResultEntries().size(), is(70_000));
+    }
+
+    @Test
+    public void shouldReadEveryEntryOnceRegardlessOfEntryCount() throws Exception
+    {
+        // given
+        verifierService.setArchiveEngine(ArchiveEngine.STREAM);
+        File scalingDirectory = new File(outputDirectory, "scaling");
+
+        // when
+        PhaseMetrics smallHashing = verifySynthetic(scalingDirectory, 2_000).phase(RunMetrics.HASHING);
+        PhaseMetrics largeHashing = verifySynthetic(scalingDirectory, 16_000).phase(RunMetrics.HASHING);
+
+        // then
+        // the wall clock scaling is measured by the VerifyBenchmark of the benchmark module
+        assertThat(smallHashing.getEntries(), is(2_000L));
+        assertThat(smallHashing.getBytes(), is(syntheticContentLength(2_000)));
+        assertThat(largeHashing.getEntries(), is(16_000L));
+        assertThat(largeHashing.getBytes(), is(syntheticContentLength(16_000)));
+    }
+
+    @Test
+    public void shouldLookUpEveryFileAtConstantCostRegardlessOfEntryCount() throws Exception
+    {
+        // given
+        AtomicLong pathReads = new AtomicLong();
+        verifierService = new VerifierService()
+        {
+            @Override
+            WhitelistLoader createWhitelistLoader()
+            {
+                return new CountingWhitelistLoader(pathReads);
+            }
+        };
+        verifierService.setArchiveEngine(ArchiveEngine.STREAM);
+        File scalingDirectory = new File(outputDirectory, "scaling");
+
+        // when
+        verifySynthetic(scalingDirectory, 2_000);
+        long smallPathReads = pathReads.getAndSet(0);
+        verifySynthetic(scalingDirectory, 16_000);
+        long largePathReads = pathReads.get();
+
+        // then
+        // every entry path is read a constant number of times, a scan over the entries per file would read it per file
+        assertThat(largePathReads, is(smallPathReads * 8));
+    }
+
+    private RunMetrics verifySynthetic(File directory, int entryCount) throws Exception
+    {
+        File distributionArchive = new File(directory, "scaling_" + entryCount + ".zip");
+        File whitelist = new File(directory, "scaling_" + entryCount + ".xml");
+        createSyntheticDistribution(distributionArchive, whitelist, entryCount);
+
+        VerifierResult verifierResult = verifierService.verify(distributionArchive, directory, whitelist, variables);
+
+        assertThat(verifierResult.isValid(), is(true));
+        assertThat(verifierResult.getResultEntries().size(), is(entryCount));
+        return verifierResult.getMetrics();
+    }
+
+    private static long syntheticContentLength(int entryCount)
+    {
+        long length = 0;
+        for (int i = 0; i < entryCount; i++)
+        {
+            length += syntheticContent(i).length;
+        }
+        return length;
+    }
+
+    private static byte[] syntheticContent(int index)
+    {
+        return ("content of entry " + index).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void createSyntheticDistribution(File distributionArchive, File whitelist, int entryCount) throws IOException
+    {
+        createSyntheticDistribution(distributionArchive, whitelist, entryCount, ZipEntry.DEFLATED);
+    }
+
+    private void createSyntheticDistribution(File distributionArchive, File whitelist, int entryCount, int method) throws IOException
+    {
+        FileUtils.forceMkdir(distributionArchive.getParentFile());
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(new FileOutputStream(distributionArchive));
+                Writer writer = new OutputStreamWriter(new FileOutputStream(whitelist), StandardCharsets.UTF_8))
+        {
+            writer.write("<whitelist>\n");
+            for (int i = 0; i < entryCount; i++)
+            {
+                String name = "lib/module-" + (i % 100) + "/file-" + i + ".txt";
+                byte[] content = syntheticContent(i);
+                ZipEntry zipEntry = new ZipEntry(name);
+                zipEntry.setMethod(method);
+                if (method == ZipEntry.STORED)
+                {
+                    CRC32 crc32 = new CRC32();
+                    crc32.update(content);
+                    zipEntry.setSize(content.length);
+                    zipEntry.setCrc(crc32.getValue());
+                }
+                zipOutputStream.putNextEntry(zipEntry);
+                zipOutputStream.write(content);
+                zipOutputStream.closeEntry();
+                writer.write("  <entry path=\"/" + name + "\" md5=\"" + DigestUtils.md5Hex(content) + "\"/>\n");
+            }
+            writer.write("</whitelist>\n");
+        }
+    }
+
+    /**
+     * Whitelist loader whose entries count how often their path is read.
+     */
+    private static class CountingWhitelistLoader extends WhitelistLoader
+    {
+        private final AtomicLong pathReads;
+
+        CountingWhitelistLoader(AtomicLong pathReads)
+        {
+            this.pathReads = pathReads;
+        }
+
+        @Override
+        public WhitelistIndex load(File whitelist, Map<String, String> properties) throws Exception
+        {
+            WhitelistIndex countingIndex = new WhitelistIndex();
+            for (Entry entry : super.load(whitelist, properties).getEntries())
+            {
+                countingIndex.addEntry(new CountingEntry(entry, pathReads));
+            }
+            return countingIndex;
+        }
+    }
+
+    private static class CountingEntry extends Entry
+    {
+        private final AtomicLong pathReads;
+
+        CountingEntry(Entry entry, AtomicLong pathReads)
+        {
+            this.pathReads = pathReads;
+            setPath(entry.getPath());
+            for (Map.Entry<DigestAlgorithm, String> digest : entry.getDigests().entrySet())
+            {
+                setDigest(digest.getKey(), digest.getValue());
+            }
+        }
+
+        @Override
+        public String getPath()
+        {
+            pathReads.incrementAndGet();
+            return super.getPath();
+        }
+    }
 }